@@ -60,6 +60,12 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests.all {
+            // Allowed slowdown before DetectionBenchmarkTest fails, e.g. -Pbenchmark.tolerance=0.3
+            it.systemProperty("benchmark.tolerance", project.findProperty("benchmark.tolerance") ?: "0.5")
+        }
+    }
 }
 
 dependencies {
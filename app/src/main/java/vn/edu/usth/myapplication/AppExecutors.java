@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: AppExecutors.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The app's background threads: a pool per kind of work, each with a fixed number of threads, so
+ * a burst of disk or network calls cannot starve decoding and the other way round.
+ * <ul>
+ * <li>{@link #compute()}: CPU-bound work such as decoding, tiling and model warm-up. Inference
+ * itself runs on the interpreter pool, one thread per interpreter.</li>
+ * <li>{@link #io()}: disk and database access.</li>
+ * <li>{@link #network()}: HTTP calls.</li>
+ * </ul>
+ * Every pool reports its queue depth and how long tasks waited and ran, for the debug overlay.
+ */
+final class AppExecutors {
+
+    private static final AppExecutors INSTANCE = new AppExecutors(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2), 4, 4);
+
+    private final Pool compute;
+    private final Pool io;
+    private final Pool network;
+
+    AppExecutors(int computeThreads, int ioThreads, int networkThreads) {
+        compute = new Pool("compute", computeThreads);
+        io = new Pool("io", ioThreads);
+        network = new Pool("network", networkThreads);
+    }
+
+    static AppExecutors get() {
+        return INSTANCE;
+    }
+
+    Pool compute() {
+        return compute;
+    }
+
+    Pool io() {
+        return io;
+    }
+
+    Pool network() {
+        return network;
+    }
+
+    /** One line per pool: queue depth, busy threads, tasks run, p95 wait and run time. */
+    String summary() {
+        return compute.summary() + '\n' + io.summary() + '\n' + network.summary();
+    }
+
+    void shutdown() {
+        compute.executor.shutdownNow();
+        io.executor.shutdownNow();
+        network.executor.shutdownNow();
+    }
+
+    /** A bounded thread pool that times every task it runs. */
+    static final class Pool implements Executor {
+
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LatencyHistogram waits = new LatencyHistogram();
+        private final LatencyHistogram runs = new LatencyHistogram();
+
+        Pool(String name, int threads) {
+            this.name = name;
+            AtomicInteger threadId = new AtomicInteger();
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    r -> {
+                        Thread t = new Thread(r, name + "-" + threadId.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            long enqueued = System.nanoTime();
+            queued.incrementAndGet();
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                queued.decrementAndGet();
+                waits.recordNanos(start - enqueued);
+                try {
+                    task.run();
+                } finally {
+                    runs.recordNanos(System.nanoTime() - start);
+                }
+            });
+        }
+
+        /**
+         * Runs {@code task} on this pool. Cancelling the returned future before the task starts
+         * skips it, and callbacks chained on a cancelled future never see its result.
+         */
+        <T> CompletableFuture<T> supply(Callable<T> task) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            execute(() -> {
+                if (future.isDone()) return;
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+            return future;
+        }
+
+        CompletableFuture<Void> run(Runnable task) {
+            return supply(() -> {
+                task.run();
+                return null;
+            });
+        }
+
+        /** Runs tasks one at a time, in submission order, on this pool's threads. */
+        Executor serial() {
+            return new SerialExecutor(this);
+        }
+
+        /**
+         * This pool for libraries that insist on an {@link ExecutorService}, such as OkHttp's
+         * dispatcher. Tasks are still timed; shutting it down does nothing, the pool is shared.
+         */
+        ExecutorService asExecutorService() {
+            return new SharedExecutorService(this);
+        }
+
+        String name() {
+            return name;
+        }
+
+        /** Tasks submitted but not started yet. */
+        int queueDepth() {
+            return queued.get();
+        }
+
+        int activeCount() {
+            return executor.getActiveCount();
+        }
+
+        LatencyHistogram waits() {
+            return waits;
+        }
+
+        LatencyHistogram runs() {
+            return runs;
+        }
+
+        String summary() {
+            return String.format(Locale.US, "%-8s q=%-3d active=%d done=%-5d wait p95 %5.1f  run p95 %6.1f ms",
+                    name, queueDepth(), activeCount(), runs.count(),
+                    waits.count() == 0 ? 0 : waits.percentileMillis(95),
+                    runs.count() == 0 ? 0 : runs.percentileMillis(95));
+        }
+    }
+
+    /** Hands tasks to {@code target} one at a time. */
+    private static final class SerialExecutor implements Executor {
+
+        private final Executor target;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean running;
+
+        SerialExecutor(Executor target) {
+            this.target = target;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+            if (!running) {
+                running = true;
+                target.execute(this::drainOne);
+            }
+        }
+
+        private void drainOne() {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+                if (task == null) {
+                    running = false;
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } finally {
+                synchronized (this) {
+                    if (tasks.isEmpty()) {
+                        running = false;
+                    } else {
+                        target.execute(this::drainOne);
+                    }
+                }
+            }
+        }
+    }
+
+    /** {@link ExecutorService} view of a pool that its users cannot shut down. */
+    private static final class SharedExecutorService extends AbstractExecutorService {
+
+        private final Pool pool;
+
+        SharedExecutorService(Pool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            pool.execute(task);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
+}
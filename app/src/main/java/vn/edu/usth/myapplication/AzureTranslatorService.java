@@ -21,6 +21,7 @@ import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -38,6 +39,8 @@ public final class AzureTranslatorService {
     private final OkHttpClient http = new OkHttpClient.Builder()
             .connectTimeout(15, TimeUnit.SECONDS)
             .readTimeout(30, TimeUnit.SECONDS)
+            // Calls run on the app's network pool rather than OkHttp's own unbounded one
+            .dispatcher(new Dispatcher(AppExecutors.get().network().asExecutorService()))
             .build();
 
     private final Gson gson = new Gson();
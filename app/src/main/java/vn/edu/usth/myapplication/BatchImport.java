@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: BatchImport.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports many gallery images at once: decodes them, detects objects and stores the labels in
+ * {@link ImportedImageDatabase}. The job belongs to the process, not to a screen, so it keeps
+ * running when the user navigates away; a screen attaches a listener to follow its progress.
+ */
+final class BatchImport {
+
+    private static final String TAG = "BatchImport";
+    // Decoded images waiting per interpreter; one queued keeps it busy while the next decodes
+    private static final int QUEUED_PER_INTERPRETER = 2;
+    private static final int WRITE_BATCH = 16;
+
+    private static BatchImport current;
+
+    private final Context context;
+    private final List<Uri> sources;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    // Main thread only
+    private ImportPipeline.Listener listener;
+    private ImportPipeline.Progress progress;
+    private volatile ImportPipeline<Uri, Bitmap> pipeline;
+    private volatile boolean cancelled;
+
+    private BatchImport(Context context, List<Uri> sources) {
+        this.context = context.getApplicationContext();
+        this.sources = new ArrayList<>(sources);
+        progress = new ImportPipeline.Progress(sources.size(), 0, 0, 0, false, false);
+    }
+
+    /** The running or last finished import, or null. */
+    static synchronized BatchImport current() {
+        return current;
+    }
+
+    /** Starts importing {@code sources}, unless an import is still running; returns the running one. */
+    static synchronized BatchImport start(Context context, List<Uri> sources) {
+        if (current != null && !current.isFinished()) return current;
+        current = new BatchImport(context, sources);
+        current.run();
+        return current;
+    }
+
+    private void run() {
+        YOLOv5Classifier.whenReady(context).whenComplete((classifier, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Model failed to load", error);
+                post(new ImportPipeline.Progress(sources.size(), sources.size(), sources.size(), 0, true, false));
+                return;
+            }
+            ImportedImageDatabase database = new ImportedImageDatabase(context);
+            ContentResolver resolver = context.getContentResolver();
+            int inputSize = classifier.selectInputSize(InputSizeSelector.Quality.ACCURATE, 0);
+            pipeline = new ImportPipeline<>(sources,
+                    uri -> ImageLoader.decodeForDetection(resolver, uri, inputSize),
+                    classifier::detectAsync,
+                    BitmapPool.get()::put,
+                    results -> {
+                        List<String[]> rows = new ArrayList<>(results.size());
+                        for (ImportPipeline.Result<Uri> result : results) {
+                            if (result.error != null) {
+                                Log.w(TAG, "Failed to import " + result.source, result.error);
+                                continue;
+                            }
+                            rows.add(new String[]{result.source.toString(),
+                                    String.join(", ", classifier.labelsOf(result.detections))});
+                        }
+                        database.addAll(rows);
+                    },
+                    this::post, AppExecutors.get().compute(), AppExecutors.get().io().serial(),
+                    classifier.getParallelism() * QUEUED_PER_INTERPRETER, WRITE_BATCH);
+            if (cancelled) pipeline.cancel();
+            pipeline.start().whenComplete((p, e) -> database.close());
+        });
+    }
+
+    /** Stops after the images already decoded; what was detected so far is kept. */
+    void cancel() {
+        cancelled = true;
+        ImportPipeline<Uri, Bitmap> running = pipeline;
+        if (running != null) running.cancel();
+    }
+
+    /** Called on the main thread, right away with the latest progress; null to detach. */
+    void setListener(ImportPipeline.Listener listener) {
+        this.listener = listener;
+        if (listener != null) listener.onProgress(progress);
+    }
+
+    boolean isFinished() {
+        return progress.finished;
+    }
+
+    private void post(ImportPipeline.Progress update) {
+        main.post(() -> {
+            progress = update;
+            if (listener != null) listener.onProgress(update);
+        });
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: BitmapPixelSource.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.graphics.Bitmap;
+
+/**
+ * {@link PixelSource} over a software {@link Bitmap}, optionally rotated upright while rows are
+ * read, so a sideways camera capture needs no rotated copy.
+ */
+final class BitmapPixelSource implements PixelSource {
+
+    private final Bitmap bitmap;
+    private final int rotation;
+    // One bitmap column, for the rotations that read columns as rows
+    private int[] column;
+
+    BitmapPixelSource(Bitmap bitmap) {
+        this(bitmap, 0);
+    }
+
+    /** {@code rotationDegrees} is how far the bitmap must turn clockwise to be upright. */
+    BitmapPixelSource(Bitmap bitmap, int rotationDegrees) {
+        this.bitmap = bitmap;
+        rotation = ((rotationDegrees % 360) + 360) % 360;
+    }
+
+    @Override
+    public int width() {
+        return rotation == 90 || rotation == 270 ? bitmap.getHeight() : bitmap.getWidth();
+    }
+
+    @Override
+    public int height() {
+        return rotation == 90 || rotation == 270 ? bitmap.getWidth() : bitmap.getHeight();
+    }
+
+    @Override
+    public void readRow(int y, int[] dst) {
+        int w = bitmap.getWidth(), h = bitmap.getHeight();
+        switch (rotation) {
+            case 90:
+                // Upright row y is column y, bottom to top
+                readColumn(y);
+                for (int x = 0; x < h; x++) dst[x] = column[h - 1 - x];
+                break;
+            case 180:
+                bitmap.getPixels(dst, 0, w, 0, h - 1 - y, w, 1);
+                for (int i = 0, j = w - 1; i < j; i++, j--) {
+                    int t = dst[i];
+                    dst[i] = dst[j];
+                    dst[j] = t;
+                }
+                break;
+            case 270:
+                // Upright row y is column w - 1 - y, top to bottom
+                readColumn(w - 1 - y);
+                System.arraycopy(column, 0, dst, 0, h);
+                break;
+            default:
+                bitmap.getPixels(dst, 0, w, 0, y, w, 1);
+                break;
+        }
+    }
+
+    private void readColumn(int x) {
+        int h = bitmap.getHeight();
+        if (column == null || column.length < h) column = new int[h];
+        bitmap.getPixels(column, 0, 1, x, 0, 1, h);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: BitmapPool.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Detection bitmaps kept for reuse, so flipping through photos or importing a folder decodes
+ * into the same few buffers instead of leaving a multi-megabyte bitmap per image to the garbage
+ * collector. Decoders borrow a buffer through {@link #prepare} and whoever is done with the
+ * bitmap hands it back with {@link #put}.
+ * <p>
+ * The budget is an eighth of the heap. It shrinks under memory pressure and the pool is emptied
+ * when the app goes to the background; it grows back once the pressure has not been reported
+ * for a while.
+ */
+final class BitmapPool implements ComponentCallbacks2 {
+
+    private static final long RESTORE_AFTER_NANOS = 30_000_000_000L;
+    private static final BitmapPool INSTANCE = new BitmapPool(Runtime.getRuntime().maxMemory() / 8);
+
+    private final long fullBudget;
+    private final ReusePool<Bitmap> pool;
+    private volatile long trimmedAt;
+
+    private BitmapPool(long budget) {
+        fullBudget = budget;
+        pool = new ReusePool<>(budget, Bitmap::getAllocationByteCount, Bitmap::recycle);
+    }
+
+    static BitmapPool get() {
+        return INSTANCE;
+    }
+
+    /**
+     * A mutable ARGB_8888 bitmap of exactly {@code width x height} from the pool, or null. Its
+     * pixels are whatever the previous user left.
+     */
+    Bitmap obtain(int width, int height) {
+        long needed = (long) width * height * 4;
+        // At most twice as large, so a full tile buffer is not spent on a thumbnail
+        Bitmap bitmap = pool.take(needed, needed * 2);
+        if (bitmap != null) bitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+        return bitmap;
+    }
+
+    /**
+     * Lets a decode into {@code options} reuse a pooled bitmap for an image of about
+     * {@code width x height}, and makes the result mutable so it can be pooled in turn.
+     */
+    void prepare(BitmapFactory.Options options, int width, int height) {
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        options.inBitmap = obtain(width, height);
+    }
+
+    /** Returns {@code bitmap} for reuse; bitmaps that cannot be decoded into are recycled. */
+    void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) return;
+        if (!bitmap.isMutable() || bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            bitmap.recycle();
+            return;
+        }
+        long trimmed = trimmedAt;
+        if (trimmed != 0 && System.nanoTime() - trimmed > RESTORE_AFTER_NANOS) {
+            trimmedAt = 0;
+            pool.setMaxBytes(fullBudget);
+        }
+        pool.put(bitmap);
+    }
+
+    String summary() {
+        return String.format(Locale.US, "bitmaps  %d kept, %.1f/%.1f MB, %d hits %d misses",
+                pool.size(), pool.bytes() / 1048576f, pool.maxBytes() / 1048576f, pool.hits(), pool.misses());
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        long budget;
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            // The system is about to kill processes, or nothing of the app is on screen
+            budget = 0;
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            budget = fullBudget / 4;
+        } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            budget = fullBudget / 2;
+        } else {
+            return;
+        }
+        trimmedAt = System.nanoTime();
+        pool.setMaxBytes(Math.min(budget, pool.maxBytes()));
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
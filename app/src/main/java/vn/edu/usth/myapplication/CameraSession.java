@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: CameraSession.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.Camera;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageCapture;
+import androidx.camera.core.Preview;
+import androidx.camera.core.UseCase;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The camera and its use cases, owned by the process rather than by the camera screen. Opening a
+ * camera takes 300-800 ms; the screen is recreated on every tab switch and every return from the
+ * photo preview, so it attaches to this session instead of binding the camera itself.
+ * <p>
+ * The session is its own {@link LifecycleOwner}: the camera opens while an attached screen is
+ * started, stays open for {@link #CLOSE_DELAY_MS} after the screen stops so that a quick return
+ * finds it streaming, and closes at once when the app goes to the background.
+ * {@link #bind} changes only the use cases that differ from what is bound. Main thread only.
+ */
+final class CameraSession implements LifecycleOwner {
+
+    /** How long the camera stays open after its screen goes away. */
+    private static final long CLOSE_DELAY_MS = 10_000;
+
+    private static CameraSession instance;
+
+    private final LifecycleRegistry lifecycle = new LifecycleRegistry(this);
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final Runnable close = this::close;
+    private final LifecycleEventObserver appObserver = new LifecycleEventObserver() {
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner owner, @NonNull Lifecycle.Event event) {
+            // Never keep the camera open behind another app
+            if (event == Lifecycle.Event.ON_STOP) close();
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                owner.getLifecycle().removeObserver(this);
+                if (app == owner) app = null;
+            }
+        }
+    };
+
+    private LifecycleOwner app;
+    private LifecycleOwner screen;
+    private Preview.SurfaceProvider surfaceProvider;
+
+    // What is bound; camera is null until the first bind succeeds
+    private Camera camera;
+    private CameraSelector selector = CameraSelector.DEFAULT_BACK_CAMERA;
+    private Preview preview;
+    private ImageCapture imageCapture;
+    private CaptureProfile profile;
+    private ImageAnalysis imageAnalysis;
+
+    private CameraSession() {
+        lifecycle.setCurrentState(Lifecycle.State.CREATED);
+    }
+
+    static CameraSession get() {
+        if (instance == null) instance = new CameraSession();
+        return instance;
+    }
+
+    @NonNull
+    @Override
+    public Lifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    /**
+     * Shows the preview on {@code surfaceProvider} while {@code screen} is started. {@code app}
+     * is the activity; when it stops, the camera closes without waiting.
+     */
+    void attach(LifecycleOwner app, LifecycleOwner screen, Preview.SurfaceProvider surfaceProvider) {
+        if (this.app != app) {
+            if (this.app != null) this.app.getLifecycle().removeObserver(appObserver);
+            this.app = app;
+            app.getLifecycle().addObserver(appObserver);
+        }
+        this.surfaceProvider = surfaceProvider;
+        if (preview != null) preview.setSurfaceProvider(surfaceProvider);
+        if (this.screen == screen) return;
+        this.screen = screen;
+        screen.getLifecycle().addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(@NonNull LifecycleOwner owner, @NonNull Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) owner.getLifecycle().removeObserver(this);
+                // A newer screen may have attached before this one was torn down
+                if (CameraSession.this.screen != owner) return;
+                if (event == Lifecycle.Event.ON_START) {
+                    open();
+                } else if (event == Lifecycle.Event.ON_STOP) {
+                    main.postDelayed(close, CLOSE_DELAY_MS);
+                } else if (event == Lifecycle.Event.ON_DESTROY) {
+                    detach();
+                }
+            }
+        });
+    }
+
+    /** True while the camera is bound and open, so that attaching shows frames right away. */
+    boolean isOpen() {
+        return camera != null && lifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+    }
+
+    CameraSelector selector() {
+        return selector;
+    }
+
+    ImageCapture imageCapture() {
+        return imageCapture;
+    }
+
+    /** The bound analysis use case, without an analyzer; null when live detection is off. */
+    ImageAnalysis imageAnalysis() {
+        return imageAnalysis;
+    }
+
+    /**
+     * Binds a preview, a capture use case for {@code profile} and, if {@code analysis}, a frame
+     * analysis use case on the camera {@code selector} picks. Use cases already bound are kept:
+     * changing the profile swaps only the capture use case, toggling analysis binds or unbinds
+     * only that, and switching lenses moves the existing use cases to the other camera.
+     * Completes on the main thread.
+     */
+    CompletableFuture<Camera> bind(Context context, CameraSelector selector, CaptureProfile profile,
+                                   boolean analysis) {
+        CompletableFuture<Camera> result = new CompletableFuture<>();
+        ListenableFuture<ProcessCameraProvider> future = ProcessCameraProvider.getInstance(context);
+        future.addListener(() -> {
+            ProcessCameraProvider provider = null;
+            try {
+                provider = future.get();
+                result.complete(rebind(provider, selector, profile, analysis));
+            } catch (Exception e) {
+                // Start over on the next bind rather than guess what is still bound
+                if (provider != null) provider.unbindAll();
+                camera = null;
+                preview = null;
+                imageCapture = null;
+                imageAnalysis = null;
+                result.completeExceptionally(e);
+            }
+        }, ContextCompat.getMainExecutor(context));
+        return result;
+    }
+
+    private Camera rebind(ProcessCameraProvider provider, CameraSelector selector, CaptureProfile profile,
+                          boolean analysis) {
+        List<UseCase> added = new ArrayList<>();
+        List<UseCase> removed = new ArrayList<>();
+        if (preview == null) {
+            preview = new Preview.Builder().build();
+            preview.setSurfaceProvider(surfaceProvider);
+            added.add(preview);
+        }
+        if (imageCapture == null || profile != this.profile) {
+            if (imageCapture != null) removed.add(imageCapture);
+            imageCapture = profile.buildImageCapture();
+            this.profile = profile;
+            added.add(imageCapture);
+        }
+        if (analysis && imageAnalysis == null) {
+            // KEEP_ONLY_LATEST drops the frames that arrive while one is being detected
+            imageAnalysis = new ImageAnalysis.Builder()
+                    .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                    .build();
+            added.add(imageAnalysis);
+        } else if (!analysis && imageAnalysis != null) {
+            imageAnalysis.clearAnalyzer();
+            removed.add(imageAnalysis);
+            imageAnalysis = null;
+        }
+
+        if (camera == null || selector != this.selector) {
+            // Use cases of one owner share a camera, so a new lens takes all of them along
+            provider.unbindAll();
+            added.clear();
+            added.add(preview);
+            added.add(imageCapture);
+            if (imageAnalysis != null) added.add(imageAnalysis);
+        } else if (!removed.isEmpty()) {
+            provider.unbind(removed.toArray(new UseCase[0]));
+        }
+        if (!added.isEmpty()) camera = provider.bindToLifecycle(this, selector, added.toArray(new UseCase[0]));
+        this.selector = selector;
+        return camera;
+    }
+
+    private void open() {
+        main.removeCallbacks(close);
+        lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+    }
+
+    /** Closes the camera; its use cases stay bound and resume when a screen starts again. */
+    private void close() {
+        main.removeCallbacks(close);
+        lifecycle.setCurrentState(Lifecycle.State.CREATED);
+    }
+
+    private void detach() {
+        screen = null;
+        surfaceProvider = null;
+        if (preview != null) preview.setSurfaceProvider(null);
+        if (imageAnalysis != null) imageAnalysis.clearAnalyzer();
+    }
+}
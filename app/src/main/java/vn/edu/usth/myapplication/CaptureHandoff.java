@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: CaptureHandoff.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.Context;
+import android.graphics.ImageFormat;
+import android.media.ExifInterface;
+
+import androidx.camera.core.ImageProxy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Passes a photo from the shutter to the preview in memory. The camera's JPEG is kept as bytes
+ * and detection starts on it while the screen is still changing, so no file is written and read
+ * back before the labels; the JPEG reaches the disk only when the user saves it. Only the latest
+ * capture is kept.
+ */
+final class CaptureHandoff {
+
+    static final class Capture {
+        final long id;
+        final byte[] jpeg;
+        /** How far the JPEG must turn clockwise to be upright. */
+        final int rotationDegrees;
+        /** {@link System#nanoTime()} when the shutter was pressed. */
+        final long shutterNanos;
+        final CompletableFuture<DetectionBatch> detections;
+        private File file;
+
+        private Capture(long id, byte[] jpeg, int rotationDegrees, long shutterNanos,
+                        CompletableFuture<DetectionBatch> detections) {
+            this.id = id;
+            this.jpeg = jpeg;
+            this.rotationDegrees = rotationDegrees;
+            this.shutterNanos = shutterNanos;
+            this.detections = detections;
+        }
+
+        /**
+         * Writes the JPEG into {@code store} the first time it is called, or again if the store
+         * evicted it, with its rotation as the EXIF orientation, and returns the file.
+         */
+        synchronized File persist(CaptureStore store) throws IOException {
+            if (file != null && file.isFile()) return file;
+            File target = store.newFile();
+            try (OutputStream out = new FileOutputStream(target)) {
+                out.write(jpeg);
+            }
+            if (rotationDegrees % 360 != 0) {
+                ExifInterface exif = new ExifInterface(target.getAbsolutePath());
+                exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(orientationOf(rotationDegrees)));
+                exif.saveAttributes();
+            }
+            store.added(target);
+            file = target;
+            return file;
+        }
+    }
+
+    private static Capture latest;
+    private static long lastId;
+
+    private CaptureHandoff() {
+    }
+
+    /**
+     * Copies the JPEG out of {@code image}, closes it so the camera gets its buffer back, and
+     * starts detecting it.
+     */
+    static Capture publish(Context context, ImageProxy image, long shutterNanos) {
+        byte[] jpeg;
+        int rotation;
+        try {
+            if (image.getFormat() != ImageFormat.JPEG) {
+                throw new IllegalArgumentException("Unsupported capture format " + image.getFormat());
+            }
+            ByteBuffer buffer = image.getPlanes()[0].getBuffer();
+            jpeg = new byte[buffer.remaining()];
+            buffer.get(jpeg);
+            rotation = image.getImageInfo().getRotationDegrees();
+        } finally {
+            image.close();
+        }
+        CompletableFuture<DetectionBatch> detections = YOLOv5Classifier.whenReady(context)
+                .thenCompose(classifier -> classifier.detectEncodedAsync(jpeg, rotation))
+                .whenComplete((batch, error) -> {
+                    // Once per capture, however many times its preview is shown
+                    if (error == null) PipelineMetrics.get().recordSince(PipelineMetrics.Stage.SHUTTER, shutterNanos);
+                });
+        synchronized (CaptureHandoff.class) {
+            latest = new Capture(++lastId, jpeg, rotation, shutterNanos, detections);
+            return latest;
+        }
+    }
+
+    /** The capture with {@code id}, or null once a newer one replaced it. */
+    static synchronized Capture get(long id) {
+        return latest != null && latest.id == id ? latest : null;
+    }
+
+    private static int orientationOf(int rotationDegrees) {
+        switch (((rotationDegrees % 360) + 360) % 360) {
+            case 90:
+                return ExifInterface.ORIENTATION_ROTATE_90;
+            case 180:
+                return ExifInterface.ORIENTATION_ROTATE_180;
+            case 270:
+                return ExifInterface.ORIENTATION_ROTATE_270;
+            default:
+                return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: CaptureProfile.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.Context;
+import android.util.Size;
+
+import androidx.camera.core.ImageCapture;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+
+/**
+ * How the shutter trades image quality for speed. Most photos are taken only to label what is
+ * in them, and the detector reads no more than 640 px, so by default the camera is asked for a
+ * small picture it can deliver quickly.
+ */
+enum CaptureProfile {
+    /**
+     * For labelling: the fastest capture mode at about 1280x960, the smallest common 4:3 size
+     * that still covers the 640 px model input after a 2x subsampled decode and fills the preview.
+     */
+    DETECT(ImageCapture.CAPTURE_MODE_MINIMIZE_LATENCY, new Size(1280, 960), 90),
+    /** For keeping: full sensor resolution at the best quality, as the camera always did. */
+    PHOTO(ImageCapture.CAPTURE_MODE_MAXIMIZE_QUALITY, null, 100);
+
+    static final String PREFS = "CamPrefs";
+    static final String PREF_KEY = "capture_profile";
+
+    private final int captureMode;
+    private final Size targetSize;
+    private final int jpegQuality;
+
+    CaptureProfile(int captureMode, Size targetSize, int jpegQuality) {
+        this.captureMode = captureMode;
+        this.targetSize = targetSize;
+        this.jpegQuality = jpegQuality;
+    }
+
+    ImageCapture buildImageCapture() {
+        ImageCapture.Builder builder = new ImageCapture.Builder()
+                .setCaptureMode(captureMode)
+                .setJpegQuality(jpegQuality);
+        if (targetSize != null) {
+            builder.setResolutionSelector(new ResolutionSelector.Builder()
+                    .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+                    .setResolutionStrategy(new ResolutionStrategy(targetSize,
+                            ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+                    .build());
+        }
+        return builder.build();
+    }
+
+    static CaptureProfile load(Context context) {
+        String name = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).getString(PREF_KEY, null);
+        if (name != null) {
+            for (CaptureProfile profile : values()) {
+                if (profile.name().equals(name)) return profile;
+            }
+        }
+        return DETECT;
+    }
+
+    static void save(Context context, CaptureProfile profile) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                .putString(PREF_KEY, profile.name()).apply();
+    }
+}
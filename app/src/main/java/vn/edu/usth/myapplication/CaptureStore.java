@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: CaptureStore.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.io.File;
+import java.net.URI;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@code temp_*.jpg} captures in the cache directory, kept under a byte budget. Over budget,
+ * the captures used longest ago are deleted, except those a screen still shows: screens
+ * {@link #acquire} a capture while they use it and {@link #release} it afterwards.
+ * <p>
+ * Sweeps run on {@code sweeper}, never on the caller, so the shutter does not wait for the disk.
+ * Nothing but this class deletes captures.
+ */
+final class CaptureStore {
+
+    static final String PREFIX = "temp_";
+    static final String SUFFIX = ".jpg";
+    static final long DEFAULT_MAX_BYTES = 100L * 1024 * 1024;
+
+    private static CaptureStore instance;
+
+    private final File dir;
+    private final long maxBytes;
+    private final Executor sweeper;
+    // Guarded by this
+    private final Map<String, Integer> references = new HashMap<>();
+    private final Map<String, Long> lastUsed = new HashMap<>();
+    private long lastName;
+    private final AtomicBoolean sweepQueued = new AtomicBoolean();
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+
+    CaptureStore(File dir, long maxBytes, Executor sweeper) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.sweeper = sweeper;
+    }
+
+    /** The app's store in {@code cacheDir}, swept on the io pool. */
+    static synchronized CaptureStore of(File cacheDir) {
+        if (instance == null) instance = new CaptureStore(cacheDir, DEFAULT_MAX_BYTES, AppExecutors.get().io());
+        return instance;
+    }
+
+    /** A name for a new capture; nothing is created on disk. Call {@link #added} once written. */
+    synchronized File newFile() {
+        // Millisecond names, nudged forward so two captures in one millisecond never collide
+        long time = Math.max(System.currentTimeMillis(), lastName + 1);
+        lastName = time;
+        String name = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS", Locale.US).format(new Date(time));
+        return new File(dir, PREFIX + name + SUFFIX);
+    }
+
+    /** Records that a capture was written, sweeping in the background if that went over budget. */
+    void added(File file) {
+        touch(file);
+        sweepAsync();
+    }
+
+    /** Keeps {@code file} from being deleted until the matching {@link #release}. */
+    synchronized void acquire(File file) {
+        String key = file.getAbsolutePath();
+        references.merge(key, 1, Integer::sum);
+        lastUsed.put(key, System.currentTimeMillis());
+    }
+
+    void release(File file) {
+        synchronized (this) {
+            String key = file.getAbsolutePath();
+            Integer count = references.get(key);
+            if (count == null) return;
+            if (count > 1) references.put(key, count - 1);
+            else references.remove(key);
+            lastUsed.put(key, System.currentTimeMillis());
+        }
+        sweepAsync();
+    }
+
+    /** The capture a {@code file://} URI points to, or null if it is not one of this store's. */
+    File fileOf(String uri) {
+        if (uri == null || !uri.startsWith("file:")) return null;
+        File file;
+        try {
+            file = new File(URI.create(uri));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return dir.equals(file.getParentFile()) && isCapture(file.getName()) ? file : null;
+    }
+
+    /**
+     * Queues a sweep unless one is already queued or running; a request made while one runs is
+     * queued again once it finishes, so sweeps never run side by side.
+     */
+    void sweepAsync() {
+        sweepRequested.set(true);
+        if (sweepQueued.compareAndSet(false, true)) sweeper.execute(this::runSweep);
+    }
+
+    private void runSweep() {
+        sweepRequested.set(false);
+        try {
+            sweep();
+        } finally {
+            sweepQueued.set(false);
+        }
+        if (sweepRequested.get()) sweepAsync();
+    }
+
+    /**
+     * Deletes the least recently used unreferenced captures until the rest fit the budget and
+     * returns how many were deleted.
+     */
+    int sweep() {
+        File[] files = dir.listFiles((d, name) -> isCapture(name));
+        if (files == null) return 0;
+        long total = 0;
+        long[] used = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        synchronized (this) {
+            for (int i = 0; i < files.length; i++) {
+                Long recorded = lastUsed.get(files[i].getAbsolutePath());
+                used[i] = Math.max(files[i].lastModified(), recorded != null ? recorded : 0);
+                order[i] = i;
+            }
+        }
+        long[] sizes = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            sizes[i] = files[i].length();
+            total += sizes[i];
+        }
+        if (total <= maxBytes) return 0;
+        Arrays.sort(order, (a, b) -> Long.compare(used[a], used[b]));
+        int deleted = 0;
+        for (int i = 0; i < order.length && total > maxBytes; i++) {
+            File file = files[order[i]];
+            synchronized (this) {
+                String key = file.getAbsolutePath();
+                // Checked under the lock so a screen acquiring it now keeps it
+                if (references.containsKey(key) || !file.delete()) continue;
+                lastUsed.remove(key);
+            }
+            total -= sizes[order[i]];
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /** Bytes of captures on disk. */
+    long bytes() {
+        File[] files = dir.listFiles((d, name) -> isCapture(name));
+        long total = 0;
+        if (files != null) for (File file : files) total += file.length();
+        return total;
+    }
+
+    private synchronized void touch(File file) {
+        lastUsed.put(file.getAbsolutePath(), System.currentTimeMillis());
+    }
+
+    private static boolean isCapture(String name) {
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+}
@@ -21,6 +21,15 @@ public class DarkMode extends Application {
 
         // Apply theme as soon as app starts - BEFORE any activities are created
         applyTheme();
+
+        // Load the detector and run one dummy inference off the main thread
+        YOLOv5Classifier.warmUp(this);
+
+        // Shrink the pooled detection bitmaps when the system runs low on memory
+        registerComponentCallbacks(BitmapPool.get());
+
+        // Trim captures left over from earlier runs, in the background
+        CaptureStore.of(getCacheDir()).sweepAsync();
     }
 
     private void applyTheme() {
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DecodeSizes.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/**
+ * Decode dimensions for a consumer that needs less than the full image: the model, which
+ * letterboxes the long side to its input size, or a view no larger than the screen.
+ */
+final class DecodeSizes {
+
+    private DecodeSizes() {
+    }
+
+    /** Largest power-of-two subsampling that keeps the long side at least {@code longSide}. */
+    static int sampleSize(int width, int height, int longSide) {
+        int sample = 1;
+        while (Math.max(width, height) / (sample * 2) >= longSide) sample *= 2;
+        return sample;
+    }
+
+    /** Largest power-of-two subsampling that still covers {@link #fitWithin} of the same bounds. */
+    static int sampleSizeWithin(int width, int height, int maxWidth, int maxHeight) {
+        int[] fit = fitWithin(width, height, maxWidth, maxHeight);
+        int sample = 1;
+        while (width / (sample * 2) >= fit[0] && height / (sample * 2) >= fit[1]) sample *= 2;
+        return sample;
+    }
+
+    /** {@code width x height} scaled to fit {@code maxWidth x maxHeight}, never enlarged. */
+    static int[] fitWithin(int width, int height, int maxWidth, int maxHeight) {
+        float scale = Math.min(1f, Math.min(maxWidth / (float) width, maxHeight / (float) height));
+        return new int[]{Math.max(1, Math.round(width * scale)), Math.max(1, Math.round(height * scale))};
+    }
+
+    /** {@code width x height} scaled so the long side is {@code longSide}, never enlarged. */
+    static int[] fitLongSide(int width, int height, int longSide) {
+        return fitWithin(width, height, longSide, longSide);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DetectionBatch.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/**
+ * Detections of one image as flat primitive arrays, sorted by descending score.
+ * Box {@code i} is {@code boxes[4i..4i+3] = left, top, right, bottom} in original image pixels.
+ */
+public final class DetectionBatch {
+
+    public final float[] boxes;
+    public final float[] scores;
+    public final int[] classIds;
+    private int size;
+
+    public DetectionBatch(int capacity) {
+        boxes = new float[capacity * 4];
+        scores = new float[capacity];
+        classIds = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return scores.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Appends a detection; silently ignored once the batch is full. */
+    public void add(float left, float top, float right, float bottom, float score, int classId) {
+        if (size == scores.length) return;
+        int b = size * 4;
+        boxes[b] = left;
+        boxes[b + 1] = top;
+        boxes[b + 2] = right;
+        boxes[b + 3] = bottom;
+        scores[size] = score;
+        classIds[size] = classId;
+        size++;
+    }
+
+    public void copyTo(DetectionBatch dst) {
+        int n = Math.min(size, dst.capacity());
+        System.arraycopy(boxes, 0, dst.boxes, 0, n * 4);
+        System.arraycopy(scores, 0, dst.scores, 0, n);
+        System.arraycopy(classIds, 0, dst.classIds, 0, n);
+        dst.size = n;
+    }
+
+    /** Returns a trimmed copy that is safe to hand to another thread. */
+    public DetectionBatch copy() {
+        DetectionBatch dst = new DetectionBatch(size);
+        copyTo(dst);
+        return dst;
+    }
+}
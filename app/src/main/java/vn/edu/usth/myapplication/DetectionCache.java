@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DetectionCache.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detection results keyed by image content, so viewing the same photo again skips inference.
+ * <p>
+ * An in-memory LRU tier sits in front of a small directory of binary result files that survives
+ * restarts. Keys come from {@link #pixelKey} (a hash of the decoded pixels) or {@link #sourceKey}
+ * (a source URI with its size and modification time); either way they carry a salt naming the
+ * model configuration, since another model gives other results.
+ */
+final class DetectionCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".det";
+
+    private final int memoryEntries;
+    private final File dir;
+    private final int diskEntries;
+    private final Map<String, DetectionBatch> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /** {@code dir} may be null for a memory-only cache. */
+    DetectionCache(int memoryEntries, File dir, int diskEntries) {
+        this.memoryEntries = memoryEntries;
+        this.dir = dir;
+        this.diskEntries = diskEntries;
+        memory = new LinkedHashMap<String, DetectionBatch>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DetectionBatch> eldest) {
+                return size() > DetectionCache.this.memoryEntries;
+            }
+        };
+    }
+
+    /** Returns a copy of the cached results for {@code key}, or null on a miss. */
+    DetectionBatch get(String key) {
+        synchronized (memory) {
+            DetectionBatch hit = memory.get(key);
+            if (hit != null) {
+                memoryHits.incrementAndGet();
+                return hit.copy();
+            }
+        }
+        DetectionBatch stored = readDisk(key);
+        if (stored == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        diskHits.incrementAndGet();
+        synchronized (memory) {
+            memory.put(key, stored);
+        }
+        return stored.copy();
+    }
+
+    void put(String key, DetectionBatch results) {
+        DetectionBatch copy = results.copy();
+        synchronized (memory) {
+            memory.put(key, copy);
+        }
+        writeDisk(key, copy);
+    }
+
+    long memoryHits() {
+        return memoryHits.get();
+    }
+
+    long diskHits() {
+        return diskHits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DetectionCache{memoryHits=" + memoryHits + ", diskHits=" + diskHits
+                + ", misses=" + misses + "}";
+    }
+
+    /** Key from every pixel of {@code src}; costs one pass over the image but no inference. */
+    static String pixelKey(PixelSource src, String salt) {
+        int w = src.width(), h = src.height();
+        int[] row = new int[w];
+        long hash = mix(hash(salt) ^ ((long) w << 32 | h));
+        for (int y = 0; y < h; y++) {
+            src.readRow(y, row);
+            for (int x = 0; x < w; x++) hash = (hash ^ row[x]) * 0x100000001B3L;
+            hash = mix(hash + y);
+        }
+        return "px" + Long.toHexString(hash);
+    }
+
+    /** Key from where the image came from; only valid while the source stays unmodified. */
+    static String sourceKey(String source, long size, long lastModified, String salt) {
+        long hash = mix(hash(salt) ^ hash(source));
+        hash = mix(hash ^ size);
+        hash = mix(hash ^ lastModified);
+        return "src" + Long.toHexString(hash);
+    }
+
+    private static long hash(String s) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < s.length(); i++) hash = (hash ^ s.charAt(i)) * 0x100000001B3L;
+        return hash;
+    }
+
+    /** Final avalanche step of SplitMix64. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private File fileFor(String key) {
+        return new File(dir, key + SUFFIX);
+    }
+
+    private DetectionBatch readDisk(String key) {
+        if (dir == null) return null;
+        File file = fileFor(key);
+        if (!file.isFile()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) return null;
+            int n = in.readInt();
+            DetectionBatch batch = new DetectionBatch(n);
+            for (int i = 0; i < n; i++) {
+                batch.add(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat(),
+                        in.readFloat(), in.readInt());
+            }
+            // Keeps recently read entries out of reach of the disk trim
+            file.setLastModified(System.currentTimeMillis());
+            return batch;
+        } catch (IOException e) {
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, DetectionBatch batch) {
+        if (dir == null || (!dir.isDirectory() && !dir.mkdirs())) return;
+        File file = fileFor(key);
+        File tmp = new File(dir, key + "." + Thread.currentThread().getId() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                int b = i * 4;
+                out.writeFloat(batch.boxes[b]);
+                out.writeFloat(batch.boxes[b + 1]);
+                out.writeFloat(batch.boxes[b + 2]);
+                out.writeFloat(batch.boxes[b + 3]);
+                out.writeFloat(batch.scores[i]);
+                out.writeInt(batch.classIds[i]);
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            return;
+        }
+        trimDisk();
+    }
+
+    /** Deletes the least recently used files beyond {@code diskEntries}. */
+    private void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length <= diskEntries) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - diskEntries; i++) files[i].delete();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DetectionEngine.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Owns the input/output tensors and scratch arrays of one interpreter.
+ * Everything is allocated once, so a detection after warm-up does not touch the Java heap.
+ * <p>
+ * The model writes its [1][rows][85] output into one direct buffer, which is bulk-copied into a
+ * flat array with a stride of 85. Float models get a float32 input and output; quantized models
+ * get a uint8 input (4x smaller) and a uint8 output that is only dequantized for rows that pass
+ * the objectness test.
+ */
+final class DetectionEngine {
+
+    /** Output rows of the default 640x640 model. */
+    static final int NUM_ROWS = 25200;
+    static final int ROW_SIZE = 85;
+
+    /** Same shape as {@code Interpreter#run}, so the TFLite interpreter plugs in directly. */
+    interface ModelRunner {
+        void run(Object input, Object output);
+
+        /** Releases the native interpreter, if any. */
+        default void close() {
+        }
+    }
+
+    /** Scale and zero point of a uint8 model's input and output tensors. */
+    static final class Quantization {
+        final float inputScale;
+        final int inputZeroPoint;
+        final float outputScale;
+        final int outputZeroPoint;
+
+        Quantization(float inputScale, int inputZeroPoint, float outputScale, int outputZeroPoint) {
+            this.inputScale = inputScale;
+            this.inputZeroPoint = inputZeroPoint;
+            this.outputScale = outputScale;
+            this.outputZeroPoint = outputZeroPoint;
+        }
+    }
+
+    private final ModelRunner runner;
+    private final int inputSize;
+    private final int numRows;
+    private final Quantization quantization;
+    private final ByteBuffer input;
+    private final ImagePreprocessor preprocessor;
+    private final ByteBuffer output;
+    // Float models
+    private final FloatBuffer inputFloats;
+    private final FloatBuffer outputView;
+    private final float[] outputFloats;
+    // Quantized models
+    private final byte[] inputLut;
+    private final byte[] outputBytes;
+
+    private final Letterbox letterbox = new Letterbox();
+    private final YoloPostprocessor postprocessor = new YoloPostprocessor();
+    private final DetectionBatch batch = new DetectionBatch(postprocessor.maxDetections());
+
+    // Stage timings of the last run, from the monotonic clock
+    private long preprocessNanos;
+    private long inferenceNanos;
+    private long postprocessNanos;
+
+    DetectionEngine(ModelRunner runner, int inputSize) {
+        this(runner, inputSize, null);
+    }
+
+    /** {@code quantization} is null for float models. */
+    DetectionEngine(ModelRunner runner, int inputSize, Quantization quantization) {
+        this.runner = runner;
+        this.inputSize = inputSize;
+        numRows = rowsFor(inputSize);
+        this.quantization = quantization;
+        preprocessor = new ImagePreprocessor(inputSize);
+        if (quantization == null) {
+            input = ByteBuffer.allocateDirect(4 * inputSize * inputSize * 3).order(ByteOrder.nativeOrder());
+            inputFloats = input.asFloatBuffer();
+            output = ByteBuffer.allocateDirect(4 * numRows * ROW_SIZE).order(ByteOrder.nativeOrder());
+            outputView = output.asFloatBuffer();
+            outputFloats = new float[numRows * ROW_SIZE];
+            inputLut = null;
+            outputBytes = null;
+        } else {
+            input = ByteBuffer.allocateDirect(inputSize * inputSize * 3).order(ByteOrder.nativeOrder());
+            inputFloats = null;
+            inputLut = ImagePreprocessor.quantizationTable(quantization.inputScale, quantization.inputZeroPoint);
+            output = ByteBuffer.allocateDirect(numRows * ROW_SIZE).order(ByteOrder.nativeOrder());
+            outputView = null;
+            outputFloats = null;
+            outputBytes = new byte[numRows * ROW_SIZE];
+        }
+    }
+
+    /** YOLOv5 predicts 3 anchors per cell on grids of stride 8, 16 and 32. */
+    static int rowsFor(int inputSize) {
+        int rows = 0;
+        for (int stride = 8; stride <= 32; stride *= 2) {
+            int cells = inputSize / stride;
+            rows += 3 * cells * cells;
+        }
+        return rows;
+    }
+
+    boolean isQuantized() {
+        return quantization != null;
+    }
+
+    int inputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Letterboxes {@code source} into the input tensor, runs the model and fills {@link #batch()}
+     * with boxes in source pixels. Returns the number of detections.
+     */
+    int run(PixelSource source) {
+        if (quantization != null) return runQuantized(source);
+        long start = System.nanoTime();
+        preprocessor.process(source, inputFloats, letterbox);
+        long preprocessed = System.nanoTime();
+        input.rewind();
+        output.rewind();
+        runner.run(input, output);
+        outputView.rewind();
+        outputView.get(outputFloats);
+        long inferred = System.nanoTime();
+        int n = postprocessor.process(outputFloats, numRows, ROW_SIZE, letterbox, batch);
+        recordStages(start, preprocessed, inferred);
+        return n;
+    }
+
+    private int runQuantized(PixelSource source) {
+        long start = System.nanoTime();
+        preprocessor.process(source, input, inputLut, letterbox);
+        long preprocessed = System.nanoTime();
+        output.rewind();
+        runner.run(input, output);
+        output.rewind();
+        output.get(outputBytes);
+        long inferred = System.nanoTime();
+        int n = postprocessor.processQuantized(outputBytes, numRows, ROW_SIZE,
+                quantization.outputScale, quantization.outputZeroPoint, letterbox, batch);
+        recordStages(start, preprocessed, inferred);
+        return n;
+    }
+
+    private void recordStages(long start, long preprocessed, long inferred) {
+        preprocessNanos = preprocessed - start;
+        inferenceNanos = inferred - preprocessed;
+        postprocessNanos = System.nanoTime() - inferred;
+    }
+
+    /** Time the last {@link #run} spent scaling the source into the input tensor. */
+    long preprocessNanos() {
+        return preprocessNanos;
+    }
+
+    /** Time the last {@link #run} spent in the model, output copy included. */
+    long inferenceNanos() {
+        return inferenceNanos;
+    }
+
+    /** Time the last {@link #run} spent decoding boxes and suppressing overlaps. */
+    long postprocessNanos() {
+        return postprocessNanos;
+    }
+
+    /** Geometry of the last {@link #run}. */
+    Letterbox letterbox() {
+        return letterbox;
+    }
+
+    /** Results of the last {@link #run}; overwritten by the next call. */
+    DetectionBatch batch() {
+        return batch;
+    }
+
+    void close() {
+        runner.close();
+    }
+}
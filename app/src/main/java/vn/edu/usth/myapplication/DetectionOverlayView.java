@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DetectionOverlayView.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Draws live detections over a {@link androidx.camera.view.PreviewView} in its default
+ * FILL_CENTER mode: the upright analysis frame is scaled to cover the view and centred, the same
+ * way the preview is, so boxes line up with the picture.
+ */
+public class DetectionOverlayView extends View {
+
+    private final Paint boxPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelBackground = new Paint();
+    private final Paint statsPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private DetectionBatch detections = new DetectionBatch(0);
+    private String[] labels = new String[0];
+    private int imageWidth = 1;
+    private int imageHeight = 1;
+    private boolean mirrored;
+    private String stats;
+
+    public DetectionOverlayView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        boxPaint.setStyle(Paint.Style.STROKE);
+        boxPaint.setStrokeWidth(2 * density);
+        boxPaint.setColor(Color.rgb(0, 230, 118));
+        labelPaint.setColor(Color.BLACK);
+        labelPaint.setTextSize(14 * density);
+        labelBackground.setColor(Color.rgb(0, 230, 118));
+        statsPaint.setColor(Color.WHITE);
+        statsPaint.setTextSize(12 * density);
+        statsPaint.setShadowLayer(2 * density, 0, 0, Color.BLACK);
+    }
+
+    /**
+     * Shows {@code detections}, in pixels of an upright {@code width x height} frame, with one
+     * label per detection. {@code mirrored} flips them like the front camera preview.
+     */
+    public void show(DetectionBatch detections, String[] labels, int width, int height, boolean mirrored) {
+        this.detections = detections;
+        this.labels = labels;
+        imageWidth = width;
+        imageHeight = height;
+        this.mirrored = mirrored;
+        invalidate();
+    }
+
+    /** One line of timing information drawn in the top-left corner; null hides it. */
+    public void setStats(@Nullable String stats) {
+        this.stats = stats;
+        invalidate();
+    }
+
+    public void clear() {
+        detections = new DetectionBatch(0);
+        labels = new String[0];
+        stats = null;
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        float scale = Math.max(getWidth() / (float) imageWidth, getHeight() / (float) imageHeight);
+        float dx = (getWidth() - imageWidth * scale) / 2f;
+        float dy = (getHeight() - imageHeight * scale) / 2f;
+        float textHeight = labelPaint.getTextSize();
+        for (int i = 0; i < detections.size(); i++) {
+            int b = i * 4;
+            float left = detections.boxes[b] * scale + dx;
+            float right = detections.boxes[b + 2] * scale + dx;
+            if (mirrored) {
+                float l = getWidth() - right;
+                right = getWidth() - left;
+                left = l;
+            }
+            float top = detections.boxes[b + 1] * scale + dy;
+            float bottom = detections.boxes[b + 3] * scale + dy;
+            canvas.drawRect(left, top, right, bottom, boxPaint);
+
+            String text = (i < labels.length ? labels[i] : "?")
+                    + " " + Math.round(detections.scores[i] * 100) + "%";
+            float textWidth = labelPaint.measureText(text);
+            float labelTop = Math.max(0, top - textHeight * 1.3f);
+            canvas.drawRect(left, labelTop, left + textWidth + textHeight * 0.5f, labelTop + textHeight * 1.3f,
+                    labelBackground);
+            canvas.drawText(text, left + textHeight * 0.25f, labelTop + textHeight, labelPaint);
+        }
+        if (stats != null) canvas.drawText(stats, statsPaint.getTextSize(), statsPaint.getTextSize() * 2, statsPaint);
+    }
+}
@@ -22,19 +22,16 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.camera.core.*;
-import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Observer;
 import androidx.navigation.Navigation;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.google.common.util.concurrent.ListenableFuture;
 import java.io.File;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public class EmbeddedCameraFragment extends Fragment {
 
@@ -43,10 +40,17 @@ public class EmbeddedCameraFragment extends Fragment {
     private PreviewView previewView;
     private View permissionLayout, zoomControlLayout;
     private ImageCapture imageCapture;
-    private CameraSelector cameraSelector = CameraSelector.DEFAULT_BACK_CAMERA;
+    private ImageAnalysis imageAnalysis;
+    private CameraSelector cameraSelector;
     private CameraControl cameraControl;
     private CameraInfo cameraInfo;
-    private ExecutorService cameraExecutor;
+    private Executor cameraExecutor;
+    private LifecycleTaskScope scope;
+
+    // live detection
+    private DetectionOverlayView detectionOverlay;
+    private FloatingActionButton btnLiveDetect;
+    private boolean liveDetection;
 
     // zoom UI
     private SeekBar zoomSlider;
@@ -70,6 +74,8 @@ public class EmbeddedCameraFragment extends Fragment {
         previewView = v.findViewById(R.id.preview_view);
         permissionLayout = v.findViewById(R.id.permission_layout);
         zoomControlLayout = v.findViewById(R.id.zoom_control);
+        detectionOverlay = v.findViewById(R.id.detection_overlay);
+        btnLiveDetect = v.findViewById(R.id.btn_live_detect);
         zoomSlider = v.findViewById(R.id.zoom_slider);
         txtZoomLevel = v.findViewById(R.id.txt_zoom_level);
         btnZoom1x = v.findViewById(R.id.btn_zoom_1x);
@@ -86,17 +92,49 @@ public class EmbeddedCameraFragment extends Fragment {
         btnSwitch.setOnClickListener(x -> switchCamera());
         btnGrant.setOnClickListener(x -> requestPermissions());
         btnFlash.setOnClickListener(x -> toggleFlash(btnFlash));
+        btnLiveDetect.setOnClickListener(x -> toggleLiveDetection());
+        liveDetection = sharedPreferences.getBoolean("live_detection", false);
+        updateLiveDetectButton();
 
         setupZoomControl();
         setupPinchToZoom();
-        cameraExecutor = Executors.newSingleThreadExecutor();
-
-        if (allPermissionsGranted()) startCamera();
-        else showPermissionLayout();
+        // Frames are analysed in order on the shared compute threads; no thread of our own to stop
+        cameraExecutor = AppExecutors.get().compute().serial();
+        // The lens survives this screen; it lives in the session with the camera
+        cameraSelector = CameraSession.get().selector();
 
         return v;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        scope = LifecycleTaskScope.of(getViewLifecycleOwner());
+        if (allPermissionsGranted()) {
+            timeFirstFrame(System.nanoTime(), CameraSession.get().isOpen());
+            startCamera();
+        } else {
+            showPermissionLayout();
+        }
+    }
+
+    /**
+     * Records how long this screen took to show its first preview frame. It is short when the
+     * session was still open from the last visit and a full camera open otherwise.
+     */
+    private void timeFirstFrame(long startNanos, boolean warm) {
+        previewView.getPreviewStreamState().observe(getViewLifecycleOwner(), new Observer<PreviewView.StreamState>() {
+            @Override
+            public void onChanged(PreviewView.StreamState state) {
+                if (state != PreviewView.StreamState.STREAMING) return;
+                previewView.getPreviewStreamState().removeObserver(this);
+                PipelineMetrics.get().recordSince(PipelineMetrics.Stage.CAMERA, startNanos);
+                Log.d(TAG, String.format(Locale.US, "First frame after %.0f ms (%s)",
+                        (System.nanoTime() - startNanos) / 1e6, warm ? "camera open" : "camera closed"));
+            }
+        });
+    }
+
     private boolean allPermissionsGranted() {
         boolean cam = ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.CAMERA)
                 == PackageManager.PERMISSION_GRANTED;
@@ -118,38 +156,61 @@ public class EmbeddedCameraFragment extends Fragment {
         permissionLayout.setVisibility(View.GONE);
         previewView.setVisibility(View.VISIBLE);
 
-        ListenableFuture<ProcessCameraProvider> future = ProcessCameraProvider.getInstance(requireContext());
-        future.addListener(() -> {
-            try {
-                ProcessCameraProvider provider = future.get();
-                bindCameraUseCases(provider);
-            } catch (Exception e) {
-                Log.e(TAG, "Camera start failed", e);
-                showPermissionLayout();
-            }
-        }, ContextCompat.getMainExecutor(requireContext()));
+        CameraSession.get().attach(requireActivity(), getViewLifecycleOwner(), previewView.getSurfaceProvider());
+        bindCameraUseCases();
     }
 
-    private void bindCameraUseCases(ProcessCameraProvider provider) {
-        Preview preview = new Preview.Builder().build();
-        preview.setSurfaceProvider(previewView.getSurfaceProvider());
-
-        imageCapture = new ImageCapture.Builder()
-                .setCaptureMode(ImageCapture.CAPTURE_MODE_MAXIMIZE_QUALITY)
-                .build();
-
-        try {
-            provider.unbindAll();
-            Camera camera = provider.bindToLifecycle(this, cameraSelector, preview, imageCapture);
-            cameraControl = camera.getCameraControl();
-            cameraInfo = camera.getCameraInfo();
-
-            boolean torch = sharedPreferences.getBoolean("flash_mode", false);
-            cameraControl.enableTorch(torch);
-            initializeZoomControl();
-        } catch (Exception e) {
-            Log.e(TAG, "Bind failed", e);
-        }
+    /** Asks the session for the current lens and settings; only what changed is rebound. */
+    private void bindCameraUseCases() {
+        CameraSession session = CameraSession.get();
+        detectionOverlay.clear();
+        // Small and fast unless the user asked for full-quality photos in the settings
+        scope.bind(session.bind(requireContext(), cameraSelector, CaptureProfile.load(requireContext()),
+                        liveDetection))
+                .whenCompleteAsync((camera, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Camera start failed", error);
+                        cameraSelector = session.selector();
+                        showPermissionLayout();
+                        return;
+                    }
+                    imageCapture = session.imageCapture();
+                    // Also after a lens switch, which keeps the use case but flips the mirroring
+                    imageAnalysis = session.imageAnalysis();
+                    if (imageAnalysis != null) startAnalysis(imageAnalysis);
+                    cameraControl = camera.getCameraControl();
+                    cameraInfo = camera.getCameraInfo();
+
+                    boolean torch = sharedPreferences.getBoolean("flash_mode", false);
+                    cameraControl.enableTorch(torch);
+                    initializeZoomControl();
+                }, scope.main());
+    }
+
+    /**
+     * Analysis runs on {@code cameraExecutor}; the session's use case keeps only the latest frame,
+     * so boxes never lag behind the preview by more than a frame.
+     */
+    private void startAnalysis(ImageAnalysis analysis) {
+        boolean mirrored = cameraSelector == CameraSelector.DEFAULT_FRONT_CAMERA;
+        analysis.setAnalyzer(cameraExecutor, new LiveDetector(YOLOv5Classifier.whenReady(requireContext()),
+                (detections, labels, width, height, stats) -> detectionOverlay.post(() -> {
+                    if (imageAnalysis != analysis) return;  // rebound or turned off meanwhile
+                    detectionOverlay.show(detections, labels, width, height, mirrored);
+                    detectionOverlay.setStats(stats.toString());
+                })));
+    }
+
+    private void toggleLiveDetection() {
+        liveDetection = !liveDetection;
+        sharedPreferences.edit().putBoolean("live_detection", liveDetection).apply();
+        updateLiveDetectButton();
+        if (allPermissionsGranted()) startCamera();
+    }
+
+    private void updateLiveDetectButton() {
+        btnLiveDetect.setAlpha(liveDetection ? 1f : 0.5f);
+        detectionOverlay.setVisibility(liveDetection ? View.VISIBLE : View.GONE);
     }
 
     private void setupZoomControl() {
@@ -210,9 +271,10 @@ public class EmbeddedCameraFragment extends Fragment {
         if (cameraInfo == null) return;
         ZoomState z = cameraInfo.getZoomState().getValue();
         float min = z.getMinZoomRatio(), max = z.getMaxZoomRatio();
-        currentZoomRatio = min;
-        zoomSlider.setProgress(0);
-        txtZoomLevel.setText(String.format(Locale.US, "%.1fx", min));
+        // An open camera keeps its zoom from the last visit
+        currentZoomRatio = z.getZoomRatio();
+        if (max > min) updateZoomUI(currentZoomRatio, min, max);
+        else txtZoomLevel.setText(String.format(Locale.US, "%.1fx", min));
         zoomControlLayout.setVisibility(max > min ? View.VISIBLE : View.GONE);
         btnZoom2x.setEnabled(max >= 2.0f);
     }
@@ -229,10 +291,44 @@ public class EmbeddedCameraFragment extends Fragment {
             Toast.makeText(requireContext(), "Camera not ready", Toast.LENGTH_SHORT).show();
             return;
         }
+        // Tiles are cut from the full-resolution file, so tiled mode still saves first
+        if (YOLOv5Classifier.isTiledDetection(requireContext())) takePhotoToFile();
+        else takePhotoToMemory();
+    }
+
+    /**
+     * Keeps the JPEG in memory and starts detecting it as soon as the camera delivers it; the
+     * preview opens with detection already under way.
+     */
+    private void takePhotoToMemory() {
+        long shutterNanos = System.nanoTime();
+        Context context = requireContext().getApplicationContext();
+        Executor main = ContextCompat.getMainExecutor(context);
+        imageCapture.takePicture(AppExecutors.get().compute(), new ImageCapture.OnImageCapturedCallback() {
+            @Override
+            public void onCaptureSuccess(@NonNull ImageProxy image) {
+                CaptureHandoff.Capture capture = CaptureHandoff.publish(context, image, shutterNanos);
+                main.execute(() -> {
+                    if (!isAdded()) return;
+                    Bundle args = new Bundle();
+                    args.putLong("capture_id", capture.id);
+                    args.putBoolean("is_temp", true);
+                    Navigation.findNavController(requireActivity(), R.id.nav_host_fragment)
+                            .navigate(R.id.nav_photo_preview, args);
+                });
+            }
+
+            @Override
+            public void onError(@NonNull ImageCaptureException e) {
+                Log.e(TAG, "Capture failed", e);
+                main.execute(() -> Toast.makeText(context, "Photo capture error", Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
 
-        String name = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US)
-                .format(System.currentTimeMillis());
-        File file = new File(requireContext().getCacheDir(), "temp_" + name + ".jpg");
+    private void takePhotoToFile() {
+        CaptureStore store = CaptureStore.of(requireContext().getCacheDir());
+        File file = store.newFile();
         ImageCapture.OutputFileOptions opts =
                 new ImageCapture.OutputFileOptions.Builder(file).build();
 
@@ -240,6 +336,7 @@ public class EmbeddedCameraFragment extends Fragment {
                 new ImageCapture.OnImageSavedCallback() {
                     @Override
                     public void onImageSaved(@NonNull ImageCapture.OutputFileResults out) {
+                        store.added(file);
                         Bundle args = new Bundle();
                         args.putString("photo_uri", Uri.fromFile(file).toString());
                         args.putBoolean("is_temp", true);
@@ -282,8 +379,9 @@ public class EmbeddedCameraFragment extends Fragment {
     }
 
     @Override
-    public void onDestroy() {
-        super.onDestroy();
-        if (cameraExecutor != null) cameraExecutor.shutdown();
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (imageAnalysis != null) imageAnalysis.clearAnalyzer();
+        imageAnalysis = null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ExecutionAutoTuner.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times a few warm detections per {@link ExecutionOptions} candidate and picks the fastest by
+ * median latency. Big.LITTLE devices differ a lot between 1, 2 and 4 threads, so this runs once
+ * on the device and the winner is stored for later launches.
+ * <p>
+ * In the app several interpreters run at once, each with its own threads, so a candidate is
+ * timed the same way: {@code parallelism} engines run side by side and a round lasts until the
+ * slowest finishes. A thread count that only wins alone, by oversubscribing the cores once
+ * doubled, loses here.
+ */
+final class ExecutionAutoTuner {
+
+    interface EngineFactory {
+        DetectionEngine create(ExecutionOptions options);
+    }
+
+    /** Called before each candidate; blocks while the device is busy with real work. */
+    interface IdleGate {
+        void awaitIdle() throws InterruptedException;
+    }
+
+    static final int WARM_RUNS = 2;
+    static final int TIMED_RUNS = 3;
+
+    private ExecutionAutoTuner() {
+    }
+
+    /**
+     * Returns the fastest of {@code candidates} on {@code input} with {@code parallelism} engines
+     * running concurrently. Candidates whose engine fails to build or run (e.g. XNNPACK
+     * unsupported by the model) are skipped; if all fail, the first candidate is returned.
+     */
+    static ExecutionOptions tune(List<ExecutionOptions> candidates, EngineFactory factory, PixelSource input,
+                                 int parallelism, IdleGate gate) throws InterruptedException {
+        ExecutionOptions best = candidates.get(0);
+        long bestNanos = Long.MAX_VALUE;
+        long[] times = new long[TIMED_RUNS];
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "tuner-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (ExecutionOptions options : candidates) {
+                gate.awaitIdle();
+                List<DetectionEngine> engines = new ArrayList<>(parallelism);
+                try {
+                    for (int i = 0; i < parallelism; i++) engines.add(factory.create(options));
+                    for (int i = 0; i < WARM_RUNS; i++) round(engines, input, workers);
+                    for (int i = 0; i < TIMED_RUNS; i++) times[i] = round(engines, input, workers);
+                    Arrays.sort(times);
+                    long median = times[TIMED_RUNS / 2];
+                    if (median < bestNanos) {
+                        bestNanos = median;
+                        best = options;
+                    }
+                } catch (RuntimeException | ExecutionException e) {
+                    // Not usable on this device; try the next configuration
+                } finally {
+                    for (DetectionEngine engine : engines) engine.close();
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return best;
+    }
+
+    /** Runs every engine once, all at the same time; returns the wall time of the slowest. */
+    private static long round(List<DetectionEngine> engines, PixelSource input, ExecutorService workers)
+            throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        List<Future<?>> runs = new ArrayList<>(engines.size());
+        for (DetectionEngine engine : engines) runs.add(workers.submit(() -> engine.run(input)));
+        for (Future<?> run : runs) run.get();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ExecutionOptions.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/** CPU backend settings for one TFLite interpreter. Immutable; stored in preferences via {@link #encode()}. */
+public final class ExecutionOptions {
+
+    public static final ExecutionOptions DEFAULT = new ExecutionOptions(2, true, false);
+
+    public final int numThreads;
+    public final boolean useXnnpack;
+    /** Lets float ops run in fp16 where the CPU supports it; ignored by quantized models. */
+    public final boolean allowFp16;
+
+    public ExecutionOptions(int numThreads, boolean useXnnpack, boolean allowFp16) {
+        this.numThreads = Math.max(1, numThreads);
+        this.useXnnpack = useXnnpack;
+        this.allowFp16 = allowFp16;
+    }
+
+    public ExecutionOptions withThreads(int numThreads) {
+        return new ExecutionOptions(numThreads, useXnnpack, allowFp16);
+    }
+
+    /** {@code "threads,xnnpack,fp16"}, e.g. {@code "4,1,0"}. */
+    public String encode() {
+        return numThreads + "," + (useXnnpack ? 1 : 0) + "," + (allowFp16 ? 1 : 0);
+    }
+
+    /** Parses {@link #encode()} output; returns {@code fallback} for null or malformed input. */
+    public static ExecutionOptions decode(String value, ExecutionOptions fallback) {
+        if (value == null) return fallback;
+        String[] parts = value.split(",");
+        if (parts.length != 3) return fallback;
+        try {
+            return new ExecutionOptions(Integer.parseInt(parts[0].trim()),
+                    "1".equals(parts[1].trim()), "1".equals(parts[2].trim()));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Configurations worth timing on a device with {@code cores} CPUs: 1, 2 and 4 threads (as far
+     * as the cores allow), each with and without XNNPACK. {@code allowFp16} is kept as given.
+     */
+    static List<ExecutionOptions> tuningCandidates(int cores, boolean allowFp16) {
+        List<ExecutionOptions> list = new ArrayList<>();
+        for (int threads = 1; threads <= 4 && threads <= Math.max(1, cores); threads *= 2) {
+            list.add(new ExecutionOptions(threads, true, allowFp16));
+            list.add(new ExecutionOptions(threads, false, allowFp16));
+        }
+        return list;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExecutionOptions)) return false;
+        ExecutionOptions that = (ExecutionOptions) o;
+        return numThreads == that.numThreads && useXnnpack == that.useXnnpack && allowFp16 == that.allowFp16;
+    }
+
+    @Override
+    public int hashCode() {
+        return (numThreads * 31 + (useXnnpack ? 1 : 0)) * 31 + (allowFp16 ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d threads, XNNPACK %s, fp16 %s",
+                numThreads, useXnnpack ? "on" : "off", allowFp16 ? "on" : "off");
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: GallerySaver.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.provider.MediaStore;
+import android.webkit.MimeTypeMap;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Copies a photo into the gallery byte for byte. Re-encoding a 12 MP JPEG takes over a second,
+ * makes a bigger file and loses its EXIF data; the app never edits pixels, so the original bytes
+ * are always what the user expects to keep.
+ */
+final class GallerySaver {
+
+    private static final String ALBUM = "CamStudy";
+
+    private GallerySaver() {
+    }
+
+    /** Saves {@code source} to Pictures/CamStudy and returns the new gallery entry. */
+    static Uri save(Context context, Uri source) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        String mimeType = mimeTypeOf(resolver, source);
+        String extension = MimeTypeMap.getSingleton().getExtensionFromMimeType(mimeType);
+        String name = "CamStudy_" + System.currentTimeMillis() + "." + (extension != null ? extension : "jpg");
+
+        try (InputStream in = resolver.openInputStream(source)) {
+            if (in == null) throw new IOException("Cannot open " + source);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                return insertPending(resolver, in, name, mimeType);
+            }
+            return writeLegacy(context, in, name);
+        }
+    }
+
+    /**
+     * Android 10+: the entry stays hidden from other apps while IS_PENDING is set, so the gallery
+     * never shows a half-written file, and is deleted again if the copy fails.
+     */
+    private static Uri insertPending(ContentResolver resolver, InputStream in, String name, String mimeType)
+            throws IOException {
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.MediaColumns.DISPLAY_NAME, name);
+        values.put(MediaStore.MediaColumns.MIME_TYPE, mimeType);
+        values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_PICTURES + "/" + ALBUM);
+        values.put(MediaStore.MediaColumns.IS_PENDING, 1);
+        Uri target = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
+        if (target == null) throw new IOException("MediaStore refused " + name);
+        try {
+            try (OutputStream out = resolver.openOutputStream(target)) {
+                if (out == null) throw new IOException("Cannot write " + target);
+                StreamCopy.copy(in, out);
+            }
+            values.clear();
+            values.put(MediaStore.MediaColumns.IS_PENDING, 0);
+            resolver.update(target, values, null, null);
+            return target;
+        } catch (IOException | RuntimeException e) {
+            resolver.delete(target, null, null);
+            throw e;
+        }
+    }
+
+    /** Android 9 and lower: a plain file in the public Pictures folder, then a media scan. */
+    private static Uri writeLegacy(Context context, InputStream in, String name) throws IOException {
+        File dir = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_PICTURES), ALBUM);
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        File image = new File(dir, name);
+        try (OutputStream out = new FileOutputStream(image)) {
+            StreamCopy.copy(in, out);
+        } catch (IOException e) {
+            image.delete();
+            throw e;
+        }
+        Uri uri = Uri.fromFile(image);
+        context.sendBroadcast(new Intent(Intent.ACTION_MEDIA_SCANNER_SCAN_FILE, uri));
+        return uri;
+    }
+
+    private static String mimeTypeOf(ContentResolver resolver, Uri source) {
+        String type = resolver.getType(source);
+        if (type == null) {
+            // file:// captures have no provider to ask; go by the extension
+            String extension = MimeTypeMap.getFileExtensionFromUrl(source.toString());
+            type = MimeTypeMap.getSingleton().getMimeTypeFromExtension(extension);
+        }
+        return type != null && type.startsWith("image/") ? type : "image/jpeg";
+    }
+}
@@ -19,12 +19,15 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class HistoryFragment extends Fragment {
 
     private RecyclerView recyclerView;
     private TranslationHistoryDatabase db;
+    private ImportedImageDatabase importedDb;
+    private LifecycleTaskScope scope;
 
     @Nullable
     @Override
@@ -36,12 +39,26 @@ public class HistoryFragment extends Fragment {
         recyclerView = v.findViewById(R.id.recycler_history);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         db = new TranslationHistoryDatabase(getContext());
-        loadHistory();
+        importedDb = new ImportedImageDatabase(getContext());
         return v;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        scope = LifecycleTaskScope.of(getViewLifecycleOwner());
+        loadHistory();
+    }
+
+    /** Translations, then the labels of imported gallery images. */
     private void loadHistory() {
-        List<String[]> list = db.getAllTranslations();
-        recyclerView.setAdapter(new HistoryAdapter(list));
+        String noObjects = getString(R.string.no_objects_detected);
+        scope.bind(AppExecutors.get().io().supply(() -> {
+            List<String[]> list = new ArrayList<>(db.getAllTranslations());
+            for (String[] row : importedDb.getAllImported()) {
+                list.add(new String[]{row[0].isEmpty() ? noObjects : row[0], row[1]});
+            }
+            return list;
+        })).thenAcceptAsync(list -> recyclerView.setAdapter(new HistoryAdapter(list)), scope.main());
     }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.result.ActivityResultLauncher;
@@ -23,19 +24,26 @@ import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 
 import com.google.android.material.card.MaterialCardView;
+import com.google.android.material.progressindicator.LinearProgressIndicator;
 
 public class HomeFragment extends Fragment {
 
+    private TextView txtImportStatus;
+    private LinearProgressIndicator progressImport;
+
     private final ActivityResultLauncher<String> pickImageLauncher =
-            registerForActivityResult(new ActivityResultContracts.GetContent(), uri -> {
-                if (uri != null) {
+            registerForActivityResult(new ActivityResultContracts.GetMultipleContents(), uris -> {
+                if (uris.size() == 1) {
                     // Navigate to PhotoPreviewFragment with imported image
                     Bundle args = new Bundle();
-                    args.putString("photo_uri", uri.toString());
+                    args.putString("photo_uri", uris.get(0).toString());
                     args.putLong("timestamp", System.currentTimeMillis());
                     args.putBoolean("is_temp", false); // Imported images are not temp
                     NavController navController = Navigation.findNavController(requireActivity(), R.id.nav_host_fragment);
                     navController.navigate(R.id.nav_photo_preview, args);
+                } else if (uris.size() > 1) {
+                    // Many images are labelled in the background and stored without opening each
+                    BatchImport.start(requireContext(), uris).setListener(this::showImportProgress);
                 } else {
                     Toast.makeText(requireContext(), "No image selected", Toast.LENGTH_SHORT).show();
                 }
@@ -65,10 +73,46 @@ public class HomeFragment extends Fragment {
         // Set up navigation for Import Image card
         MaterialCardView importImageCard = view.findViewById(R.id.card_import_image);
         importImageCard.setOnClickListener(v -> {
+            BatchImport running = BatchImport.current();
+            if (running != null && !running.isFinished()) {
+                Toast.makeText(requireContext(), R.string.import_running, Toast.LENGTH_SHORT).show();
+                return;
+            }
             // Launch image picker
             pickImageLauncher.launch("image/*");
         });
+        importImageCard.setOnLongClickListener(v -> {
+            BatchImport running = BatchImport.current();
+            if (running == null || running.isFinished()) return false;
+            running.cancel();
+            return true;
+        });
+
+        // An import started earlier keeps running while this screen is gone; pick it up again
+        txtImportStatus = view.findViewById(R.id.txt_import_status);
+        progressImport = view.findViewById(R.id.progress_import);
+        BatchImport running = BatchImport.current();
+        if (running != null) running.setListener(this::showImportProgress);
 
         return view;
     }
+
+    @Override
+    public void onDestroyView() {
+        BatchImport running = BatchImport.current();
+        if (running != null) running.setListener(null);
+        super.onDestroyView();
+    }
+
+    private void showImportProgress(ImportPipeline.Progress progress) {
+        if (progress.finished) {
+            progressImport.setVisibility(View.GONE);
+            txtImportStatus.setText(getString(R.string.import_finished, progress.saved, progress.total));
+            return;
+        }
+        progressImport.setVisibility(View.VISIBLE);
+        progressImport.setMax(progress.total);
+        progressImport.setProgressCompat(progress.processed, true);
+        txtImportStatus.setText(getString(R.string.import_progress, progress.processed, progress.total));
+    }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ImageLoader.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes images at the resolution each consumer needs rather than at full size: a 12 MP photo
+ * is 48 MB as ARGB, while the detector reads about 640 px and a view no more than the screen.
+ * <p>
+ * API 28+ scales while decoding with {@link ImageDecoder#setTargetSize}, which also applies EXIF
+ * rotation; older devices, and detection of upright images, subsample by a power of two with
+ * {@code inSampleSize}.
+ */
+final class ImageLoader {
+
+    private ImageLoader() {
+    }
+
+    /**
+     * Software bitmap with its long side about {@code inputSize} (up to twice that when
+     * subsampled), readable by the detector. Upright images are decoded into a {@link BitmapPool}
+     * buffer; give the bitmap back there when done. Rotated ones need ImageDecoder to apply the
+     * EXIF orientation, which cannot decode into an existing bitmap.
+     */
+    static Bitmap decodeForDetection(ContentResolver resolver, Uri uri, int inputSize) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && isRotated(resolver, uri)) {
+            ImageDecoder.Source source = ImageDecoder.createSource(resolver, uri);
+            return ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+                int[] size = DecodeSizes.fitLongSide(info.getSize().getWidth(), info.getSize().getHeight(),
+                        inputSize);
+                decoder.setTargetSize(size[0], size[1]);
+                decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE);
+            });
+        }
+        int[] bounds = bounds(resolver, uri);
+        return decodePooled(options -> decode(resolver, uri, options), bounds,
+                DecodeSizes.sampleSize(bounds[0], bounds[1], inputSize));
+    }
+
+    /**
+     * Same as {@link #decodeForDetection(ContentResolver, Uri, int)} for an encoded image in
+     * memory, such as a camera capture. No EXIF rotation is applied; the capture reports its own.
+     */
+    static Bitmap decodeForDetection(byte[] encoded, int inputSize) throws IOException {
+        int[] bounds = bounds(encoded);
+        return decodePooled(options -> decode(encoded, options), bounds,
+                DecodeSizes.sampleSize(bounds[0], bounds[1], inputSize));
+    }
+
+    /**
+     * Software bitmap of an encoded image in memory, turned {@code rotationDegrees} clockwise and
+     * no larger than {@code maxWidth x maxHeight}, for an image view.
+     */
+    static Bitmap decodeForDisplay(byte[] encoded, int rotationDegrees, int maxWidth, int maxHeight)
+            throws IOException {
+        int[] bounds = bounds(encoded);
+        boolean sideways = rotationDegrees % 180 != 0;
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sideways
+                ? DecodeSizes.sampleSizeWithin(bounds[1], bounds[0], maxWidth, maxHeight)
+                : DecodeSizes.sampleSizeWithin(bounds[0], bounds[1], maxWidth, maxHeight);
+        Bitmap bitmap = decode(encoded, options);
+        if (rotationDegrees % 360 == 0) return bitmap;
+        Matrix matrix = new Matrix();
+        matrix.postRotate(rotationDegrees);
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (rotated != bitmap) bitmap.recycle();
+        return rotated;
+    }
+
+    /**
+     * Bitmap no larger than {@code maxWidth x maxHeight} for an image view. It lives in graphics
+     * memory where the device supports it (API 26+), so it costs no Java heap, but cannot be
+     * read back.
+     */
+    static Bitmap decodeForDisplay(ContentResolver resolver, Uri uri, int maxWidth, int maxHeight)
+            throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            ImageDecoder.Source source = ImageDecoder.createSource(resolver, uri);
+            return ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+                int[] size = DecodeSizes.fitWithin(info.getSize().getWidth(), info.getSize().getHeight(),
+                        maxWidth, maxHeight);
+                decoder.setTargetSize(size[0], size[1]);
+            });
+        }
+        int[] bounds = bounds(resolver, uri);
+        Bitmap.Config config = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                ? Bitmap.Config.HARDWARE : Bitmap.Config.ARGB_8888;
+        return decodeSampled(resolver, uri,
+                DecodeSizes.sampleSizeWithin(bounds[0], bounds[1], maxWidth, maxHeight), config);
+    }
+
+    private static int[] bounds(ContentResolver resolver, Uri uri) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) throw new IOException("Not an image: " + uri);
+        return new int[]{options.outWidth, options.outHeight};
+    }
+
+    private static Bitmap decodeSampled(ContentResolver resolver, Uri uri, int sampleSize, Bitmap.Config config)
+            throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = config;
+        return decode(resolver, uri, options);
+    }
+
+    private interface Decode {
+        Bitmap decode(BitmapFactory.Options options) throws IOException;
+    }
+
+    /** Decodes subsampled by {@code sample} into a {@link BitmapPool} buffer when one fits. */
+    private static Bitmap decodePooled(Decode decode, int[] bounds, int sample) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sample;
+        // Decoders round subsampled sizes up, so this is the most the result can need
+        BitmapPool.get().prepare(options, ceilDiv(bounds[0], sample), ceilDiv(bounds[1], sample));
+        try {
+            return decode.decode(options);
+        } catch (IllegalArgumentException e) {
+            // The pooled buffer did not fit after all; let the decoder allocate
+            BitmapPool.get().put(options.inBitmap);
+            options.inBitmap = null;
+            return decode.decode(options);
+        }
+    }
+
+    private static Bitmap decode(ContentResolver resolver, Uri uri, BitmapFactory.Options options)
+            throws IOException {
+        try (InputStream in = open(resolver, uri)) {
+            return checked(BitmapFactory.decodeStream(in, null, options), options, uri);
+        }
+    }
+
+    private static Bitmap decode(byte[] encoded, BitmapFactory.Options options) throws IOException {
+        return checked(BitmapFactory.decodeByteArray(encoded, 0, encoded.length, options), options, "capture");
+    }
+
+    private static Bitmap checked(Bitmap bitmap, BitmapFactory.Options options, Object source) throws IOException {
+        if (bitmap == null) {
+            BitmapPool.get().put(options.inBitmap);
+            throw new IOException("Cannot decode " + source);
+        }
+        return bitmap;
+    }
+
+    private static int[] bounds(byte[] encoded) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(encoded, 0, encoded.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) throw new IOException("Not an image");
+        return new int[]{options.outWidth, options.outHeight};
+    }
+
+    private static boolean isRotated(ContentResolver resolver, Uri uri) throws IOException {
+        try (InputStream in = open(resolver, uri)) {
+            int orientation = new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+            return orientation != ExifInterface.ORIENTATION_NORMAL
+                    && orientation != ExifInterface.ORIENTATION_UNDEFINED;
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) throw new IOException("Cannot open " + uri);
+        return in;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ImagePreprocessor.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Letterboxes a {@link PixelSource} into the RGB input tensor in a single pass.
+ * <p>
+ * Each output row is bilinearly sampled from at most two source rows, normalised and written
+ * with one bulk put: floats in [0, 1] for float models, or bytes through a lookup table for
+ * quantized ones. No scaled bitmap or full-frame pixel array is ever created; only two source
+ * rows are held at a time.
+ */
+final class ImagePreprocessor {
+
+    static final int PAD_PIXEL = 114;
+    static final float PAD_VALUE = PAD_PIXEL / 255f;
+    // Bilinear weights are 8-bit fixed point, so a tap is an int multiply and one scale at the end
+    private static final int ONE = 256;
+    private static final int SHIFT = 16;
+    private static final int ROUND = 1 << (SHIFT - 1);
+    private static final float NORM = 1f / (ONE * ONE * 255f);
+
+    private final int inputSize;
+    private final float[] rowOut;
+    private final float[] padRow;
+    private final byte[] rowOutBytes;
+    private final byte[] padRowBytes;
+    private byte[] padLut;
+
+    private final int[] colX0;
+    private final int[] colX1;
+    private final int[] colWx;
+    private int tableSrcWidth = -1;
+    private int tableContentWidth = -1;
+
+    private int[] rowA = new int[0];
+    private int[] rowB = new int[0];
+    private int rowAY;
+    private int rowBY;
+
+    // Per-call geometry and the state of the current output row, set by begin()/prepareRow()
+    private int srcHeight;
+    private int padX;
+    private int padY;
+    private int contentW;
+    private int contentH;
+    private float yRatio;
+    private int[] top;
+    private int[] bottom;
+    private int wy;
+
+    ImagePreprocessor(int inputSize) {
+        this.inputSize = inputSize;
+        rowOut = new float[inputSize * 3];
+        padRow = new float[inputSize * 3];
+        Arrays.fill(padRow, PAD_VALUE);
+        rowOutBytes = new byte[inputSize * 3];
+        padRowBytes = new byte[inputSize * 3];
+        colX0 = new int[inputSize];
+        colX1 = new int[inputSize];
+        colWx = new int[inputSize];
+    }
+
+    int inputSize() {
+        return inputSize;
+    }
+
+    /** Writes {@code src} as floats into {@code out} from position 0 and returns {@code letterbox} filled in. */
+    Letterbox process(PixelSource src, FloatBuffer out, Letterbox letterbox) {
+        begin(src, letterbox);
+        System.arraycopy(padRow, 0, rowOut, 0, rowOut.length);
+        out.rewind();
+        for (int oy = 0; oy < inputSize; oy++) {
+            if (!prepareRow(src, oy)) {
+                out.put(padRow);
+                continue;
+            }
+            int[] a = top, b = bottom;
+            int wy = this.wy, iy = ONE - wy;
+            float[] dst = rowOut;
+            int o = padX * 3;
+            for (int cx = 0; cx < contentW; cx++) {
+                int xa = colX0[cx], xb = colX1[cx];
+                int wx = colWx[cx], ix = ONE - wx;
+                int w00 = ix * iy, w01 = wx * iy, w10 = ix * wy, w11 = wx * wy;
+                int p00 = a[xa], p01 = a[xb], p10 = b[xa], p11 = b[xb];
+                dst[o++] = ((p00 >> 16 & 0xFF) * w00 + (p01 >> 16 & 0xFF) * w01
+                        + (p10 >> 16 & 0xFF) * w10 + (p11 >> 16 & 0xFF) * w11) * NORM;
+                dst[o++] = ((p00 >> 8 & 0xFF) * w00 + (p01 >> 8 & 0xFF) * w01
+                        + (p10 >> 8 & 0xFF) * w10 + (p11 >> 8 & 0xFF) * w11) * NORM;
+                dst[o++] = ((p00 & 0xFF) * w00 + (p01 & 0xFF) * w01
+                        + (p10 & 0xFF) * w10 + (p11 & 0xFF) * w11) * NORM;
+            }
+            out.put(dst);
+        }
+        out.rewind();
+        return letterbox;
+    }
+
+    /**
+     * Quantized variant of {@link #process(PixelSource, FloatBuffer, Letterbox)}: each 8-bit channel
+     * value {@code v} is written as {@code lut[v]}, the input tensor's quantization of {@code v / 255}.
+     */
+    Letterbox process(PixelSource src, ByteBuffer out, byte[] lut, Letterbox letterbox) {
+        begin(src, letterbox);
+        if (padLut != lut) {
+            Arrays.fill(padRowBytes, lut[PAD_PIXEL]);
+            padLut = lut;
+        }
+        System.arraycopy(padRowBytes, 0, rowOutBytes, 0, rowOutBytes.length);
+        out.rewind();
+        for (int oy = 0; oy < inputSize; oy++) {
+            if (!prepareRow(src, oy)) {
+                out.put(padRowBytes);
+                continue;
+            }
+            int[] a = top, b = bottom;
+            int wy = this.wy, iy = ONE - wy;
+            byte[] dst = rowOutBytes;
+            int o = padX * 3;
+            for (int cx = 0; cx < contentW; cx++) {
+                int xa = colX0[cx], xb = colX1[cx];
+                int wx = colWx[cx], ix = ONE - wx;
+                int w00 = ix * iy, w01 = wx * iy, w10 = ix * wy, w11 = wx * wy;
+                int p00 = a[xa], p01 = a[xb], p10 = b[xa], p11 = b[xb];
+                dst[o++] = lut[((p00 >> 16 & 0xFF) * w00 + (p01 >> 16 & 0xFF) * w01
+                        + (p10 >> 16 & 0xFF) * w10 + (p11 >> 16 & 0xFF) * w11 + ROUND) >>> SHIFT];
+                dst[o++] = lut[((p00 >> 8 & 0xFF) * w00 + (p01 >> 8 & 0xFF) * w01
+                        + (p10 >> 8 & 0xFF) * w10 + (p11 >> 8 & 0xFF) * w11 + ROUND) >>> SHIFT];
+                dst[o++] = lut[((p00 & 0xFF) * w00 + (p01 & 0xFF) * w01
+                        + (p10 & 0xFF) * w10 + (p11 & 0xFF) * w11 + ROUND) >>> SHIFT];
+            }
+            out.put(dst);
+        }
+        out.rewind();
+        return letterbox;
+    }
+
+    /** Table mapping an 8-bit pixel value to the quantized input {@code round(v / 255 / scale) + zeroPoint}. */
+    static byte[] quantizationTable(float scale, int zeroPoint) {
+        byte[] lut = new byte[256];
+        for (int v = 0; v < 256; v++) {
+            int q = Math.round(v / 255f / scale) + zeroPoint;
+            lut[v] = (byte) Math.max(0, Math.min(255, q));
+        }
+        return lut;
+    }
+
+    private void begin(PixelSource src, Letterbox letterbox) {
+        int w = src.width();
+        srcHeight = src.height();
+        letterbox.fit(w, srcHeight, inputSize);
+        padX = letterbox.padX();
+        padY = letterbox.padY();
+        contentW = letterbox.contentWidth();
+        contentH = letterbox.contentHeight();
+        yRatio = srcHeight / (float) contentH;
+        prepareColumns(w, contentW);
+        if (rowA.length < w) {
+            rowA = new int[w];
+            rowB = new int[w];
+        }
+        rowAY = rowBY = -1;
+    }
+
+    /** Loads the source rows behind output row {@code oy}; returns false when it is all padding. */
+    private boolean prepareRow(PixelSource src, int oy) {
+        int cy = oy - padY;
+        if (cy < 0 || cy >= contentH) return false;
+        float sy = Math.max(0f, (cy + 0.5f) * yRatio - 0.5f);
+        int y0 = Math.min((int) sy, srcHeight - 1);
+        int y1 = Math.min(y0 + 1, srcHeight - 1);
+        wy = (int) ((sy - y0) * ONE);
+        loadRows(src, y0, y1);
+        top = rowA;
+        bottom = y1 == y0 ? rowA : rowB;
+        return true;
+    }
+
+    /** Source column pairs and weights only change with the source width, so they are cached. */
+    private void prepareColumns(int srcWidth, int contentWidth) {
+        if (srcWidth == tableSrcWidth && contentWidth == tableContentWidth) return;
+        float xRatio = srcWidth / (float) contentWidth;
+        for (int cx = 0; cx < contentWidth; cx++) {
+            float sx = Math.max(0f, (cx + 0.5f) * xRatio - 0.5f);
+            int x0 = Math.min((int) sx, srcWidth - 1);
+            colX0[cx] = x0;
+            colX1[cx] = Math.min(x0 + 1, srcWidth - 1);
+            colWx[cx] = (int) ((sx - x0) * ONE);
+        }
+        tableSrcWidth = srcWidth;
+        tableContentWidth = contentWidth;
+    }
+
+    /** Leaves row {@code y0} in {@code rowA} and {@code y1} in {@code rowB}, reading each source row once. */
+    private void loadRows(PixelSource src, int y0, int y1) {
+        if (rowAY != y0) {
+            if (rowBY == y0) {
+                int[] tmp = rowA;
+                rowA = rowB;
+                rowB = tmp;
+                rowAY = y0;
+                rowBY = -1;
+            } else {
+                src.readRow(y0, rowA);
+                rowAY = y0;
+            }
+        }
+        if (y1 != y0 && rowBY != y1) {
+            src.readRow(y1, rowB);
+            rowBY = y1;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ImportPipeline.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes, detects and stores many images as three overlapping stages.
+ * <p>
+ * Decoding runs on {@code decodeExecutor}, detection on whatever the detector uses (the
+ * interpreter pool), and results are written in batches on the single-threaded
+ * {@code writeExecutor}. At most {@code maxInFlight} images are decoded but not yet detected: the
+ * next decode only starts when a detection finishes, so memory stays flat however many images
+ * there are, while enough are queued to keep every interpreter busy.
+ *
+ * @param <S> where an image comes from, e.g. its URI
+ * @param <I> a decoded image, e.g. a bitmap
+ */
+final class ImportPipeline<S, I> {
+
+    interface Decoder<S, I> {
+        I decode(S source) throws Exception;
+    }
+
+    interface Detector<I> {
+        CompletableFuture<DetectionBatch> detect(I image);
+    }
+
+    /** Frees a decoded image once it has been detected. */
+    interface Recycler<I> {
+        void recycle(I image);
+    }
+
+    interface Sink<S> {
+        /** Stores one batch of results; called on the write thread. */
+        void write(List<Result<S>> results) throws Exception;
+    }
+
+    interface Listener {
+        /** Called on the write thread after every result and every stored batch. */
+        void onProgress(Progress progress);
+    }
+
+    /** Detections of one source, or the error that stopped it. */
+    static final class Result<S> {
+        final S source;
+        final DetectionBatch detections;
+        final Throwable error;
+
+        Result(S source, DetectionBatch detections, Throwable error) {
+            this.source = source;
+            this.detections = detections;
+            this.error = error;
+        }
+    }
+
+    static final class Progress {
+        final int total;
+        /** Images detected or failed. */
+        final int processed;
+        final int failed;
+        /** Images detected and stored by the sink. */
+        final int saved;
+        final boolean finished;
+        final boolean cancelled;
+
+        Progress(int total, int processed, int failed, int saved, boolean finished, boolean cancelled) {
+            this.total = total;
+            this.processed = processed;
+            this.failed = failed;
+            this.saved = saved;
+            this.finished = finished;
+            this.cancelled = cancelled;
+        }
+    }
+
+    private final List<S> sources;
+    private final Decoder<S, I> decoder;
+    private final Detector<I> detector;
+    private final Recycler<I> recycler;
+    private final Sink<S> sink;
+    private final Listener listener;
+    private final Executor decodeExecutor;
+    private final Executor writeExecutor;
+    private final int maxInFlight;
+    private final int batchSize;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final CompletableFuture<Progress> done = new CompletableFuture<>();
+    // Only touched on the write thread
+    private final List<Result<S>> pending = new ArrayList<>();
+    private int processed;
+    private int failed;
+    private int saved;
+    private int started;
+
+    ImportPipeline(List<S> sources, Decoder<S, I> decoder, Detector<I> detector, Recycler<I> recycler,
+                   Sink<S> sink, Listener listener, Executor decodeExecutor, Executor writeExecutor,
+                   int maxInFlight, int batchSize) {
+        if (maxInFlight < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("maxInFlight and batchSize must be positive");
+        }
+        this.sources = new ArrayList<>(sources);
+        this.decoder = decoder;
+        this.detector = detector;
+        this.recycler = recycler;
+        this.sink = sink;
+        this.listener = listener;
+        this.decodeExecutor = decodeExecutor;
+        this.writeExecutor = writeExecutor;
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+    }
+
+    /** Starts the pipeline; the future completes once every started image is stored. */
+    CompletableFuture<Progress> start() {
+        if (sources.isEmpty()) {
+            writeExecutor.execute(this::finish);
+        } else {
+            for (int i = 0; i < Math.min(maxInFlight, sources.size()); i++) pump();
+        }
+        return done;
+    }
+
+    /** Stops decoding new images; the ones in flight are still detected and stored. */
+    void cancel() {
+        cancelled.set(true);
+    }
+
+    int total() {
+        return sources.size();
+    }
+
+    /** Decodes the next source, if any, and hands it to the detector. */
+    private void pump() {
+        int index = cancelled.get() ? sources.size() : next.getAndIncrement();
+        if (index >= sources.size()) return;
+        S source = sources.get(index);
+        writeExecutor.execute(() -> started++);
+        decodeExecutor.execute(() -> {
+            I image;
+            try {
+                image = decoder.decode(source);
+            } catch (Throwable t) {
+                completed(source, null, t);
+                return;
+            }
+            CompletableFuture<DetectionBatch> detection;
+            try {
+                detection = detector.detect(image);
+            } catch (Throwable t) {
+                detection = new CompletableFuture<>();
+                detection.completeExceptionally(t);
+            }
+            detection.whenComplete((batch, error) -> {
+                recycler.recycle(image);
+                completed(source, batch, error);
+            });
+        });
+    }
+
+    private void completed(S source, DetectionBatch batch, Throwable error) {
+        pump();
+        writeExecutor.execute(() -> {
+            processed++;
+            if (error != null) failed++;
+            pending.add(new Result<>(source, batch, error));
+            boolean last = processed == started && (cancelled.get() || next.get() >= sources.size());
+            if (pending.size() >= batchSize || last) flush();
+            if (last) {
+                finish();
+            } else {
+                listener.onProgress(progress(false));
+            }
+        });
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) return;
+        List<Result<S>> batch = new ArrayList<>(pending);
+        pending.clear();
+        int detected = 0;
+        for (Result<S> result : batch) {
+            if (result.error == null) detected++;
+        }
+        try {
+            sink.write(batch);
+            saved += detected;
+        } catch (Exception e) {
+            // Detected but lost; count them with the failures
+            failed += detected;
+        }
+    }
+
+    private void finish() {
+        Progress progress = progress(true);
+        listener.onProgress(progress);
+        done.complete(progress);
+    }
+
+    private Progress progress(boolean finished) {
+        return new Progress(sources.size(), processed, failed, saved, finished, cancelled.get());
+    }
+}
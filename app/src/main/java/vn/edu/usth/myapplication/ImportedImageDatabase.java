@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ImportedImageDatabase.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Labels detected on imported gallery images, one row per image. */
+public class ImportedImageDatabase extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "imported_images.db";
+    private static final int DB_VERSION = 1;
+    private static final String TABLE_NAME = "imported_images";
+
+    private static final String COL_ID = "id";
+    private static final String COL_URI = "uri";
+    private static final String COL_LABELS = "labels";
+    private static final String COL_TIME = "created_at";
+
+    public ImportedImageDatabase(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        String sql = "CREATE TABLE " + TABLE_NAME + " (" +
+                COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COL_URI + " TEXT UNIQUE, " +
+                COL_LABELS + " TEXT, " +
+                COL_TIME + " DATETIME DEFAULT CURRENT_TIMESTAMP)";
+        db.execSQL(sql);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldV, int newV) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
+        onCreate(db);
+    }
+
+    /**
+     * Stores {@code rows} of {uri, comma-separated labels} in one transaction, so a batch costs one
+     * journal sync instead of one per image. Importing an image again replaces its labels.
+     */
+    public void addAll(List<String[]> rows) {
+        SQLiteDatabase db = getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO " + TABLE_NAME +
+                " (" + COL_URI + ", " + COL_LABELS + ") VALUES (?, ?)");
+        db.beginTransaction();
+        try {
+            for (String[] row : rows) {
+                insert.bindString(1, row[0]);
+                insert.bindString(2, row[1]);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    /** Imported images as {comma-separated labels, uri}, most recently imported first. */
+    public List<String[]> getAllImported() {
+        List<String[]> list = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        Cursor c = db.rawQuery("SELECT " + COL_LABELS + ", " + COL_URI +
+                " FROM " + TABLE_NAME + " ORDER BY " + COL_TIME + " DESC, " + COL_ID + " DESC", null);
+        while (c.moveToNext()) {
+            list.add(new String[]{c.getString(0), c.getString(1)});
+        }
+        c.close();
+        db.close();
+        return list;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: InputSizeSelector.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.Arrays;
+
+/**
+ * Picks the model input size for a request from a running latency estimate per size.
+ * <p>
+ * Every finished detection updates an exponentially weighted moving average of its size's
+ * latency. Sizes that have not run yet are estimated from the closest measured one, scaled by
+ * input area. {@link #select(long)} returns the largest size expected to fit the budget, so
+ * accuracy is only given up when the device cannot keep up.
+ * <p>
+ * A size ruled out by a slow stretch (thermal throttling, a batch import on the same interpreters)
+ * would otherwise never run again to show that it got faster. So every {@link #PROBE_EVERY}-th
+ * selection below the largest size returns the next larger one instead, and a sample of a size
+ * that has not run for a while replaces its estimate rather than being averaged into it.
+ */
+final class InputSizeSelector {
+
+    /** Input sizes a model variant may be exported at. */
+    static final int[] SUPPORTED_SIZES = {320, 416, 640};
+
+    enum Quality {
+        /** Smallest input, for live use. */
+        FAST,
+        /** Largest input that fits the latency budget. */
+        BALANCED,
+        /** Largest input, whatever it costs. */
+        ACCURATE
+    }
+
+    // Weight of the newest sample; 0.2 follows a device slowing down within a handful of runs
+    private static final double ALPHA = 0.2;
+    /** Selections between two runs of the next larger size than the one that fits. */
+    static final int PROBE_EVERY = 30;
+    // An estimate not updated for this many samples is stale; the next sample replaces it
+    private static final int STALE_AFTER = 10;
+
+    private final int[] sizes;
+    private final double[] estimateMillis;
+    private final long[] lastSample;
+    private long samples;
+    private int sinceProbe;
+
+    /** {@code sizes} are the input sizes actually available. */
+    InputSizeSelector(int[] sizes) {
+        if (sizes.length == 0) throw new IllegalArgumentException("no input sizes");
+        this.sizes = sizes.clone();
+        Arrays.sort(this.sizes);
+        estimateMillis = new double[sizes.length];
+        Arrays.fill(estimateMillis, Double.NaN);
+        lastSample = new long[sizes.length];
+    }
+
+    int[] sizes() {
+        return sizes.clone();
+    }
+
+    int smallest() {
+        return sizes[0];
+    }
+
+    int largest() {
+        return sizes[sizes.length - 1];
+    }
+
+    /** Records the latency of one detection at {@code size}. */
+    synchronized void record(int size, double millis) {
+        int i = indexOf(size);
+        if (i < 0) return;
+        double old = estimateMillis[i];
+        boolean stale = samples - lastSample[i] > STALE_AFTER;
+        estimateMillis[i] = Double.isNaN(old) || stale ? millis : old + ALPHA * (millis - old);
+        lastSample[i] = ++samples;
+    }
+
+    /** Expected latency at {@code size}, or NaN while no size has been measured. */
+    synchronized double estimateMillis(int size) {
+        int i = indexOf(size);
+        if (i < 0) throw new IllegalArgumentException("unknown input size " + size);
+        if (!Double.isNaN(estimateMillis[i])) return estimateMillis[i];
+        int nearest = -1;
+        for (int j = 0; j < sizes.length; j++) {
+            if (Double.isNaN(estimateMillis[j])) continue;
+            if (nearest < 0 || Math.abs(sizes[j] - size) < Math.abs(sizes[nearest] - size)) nearest = j;
+        }
+        if (nearest < 0) return Double.NaN;
+        double ratio = size / (double) sizes[nearest];
+        return estimateMillis[nearest] * ratio * ratio;
+    }
+
+    /**
+     * Largest size whose estimate fits {@code budgetMillis}, or the smallest one if none does.
+     * Before any measurement the largest size is returned, so the first run shows the headroom.
+     * Now and then the next larger size is returned as a probe.
+     */
+    synchronized int select(long budgetMillis) {
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            double estimate = estimateMillis(sizes[i]);
+            if (Double.isNaN(estimate) || estimate <= budgetMillis) return probeAbove(i);
+        }
+        return probeAbove(0);
+    }
+
+    /** {@code sizes[i]}, or the next larger size once every {@link #PROBE_EVERY} calls. */
+    private int probeAbove(int i) {
+        if (i == sizes.length - 1 || ++sinceProbe < PROBE_EVERY) return sizes[i];
+        sinceProbe = 0;
+        return sizes[i + 1];
+    }
+
+    int select(Quality quality, long budgetMillis) {
+        switch (quality) {
+            case FAST:
+                return smallest();
+            case ACCURATE:
+                return largest();
+            default:
+                return select(budgetMillis);
+        }
+    }
+
+    private int indexOf(int size) {
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] == size) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: InterpreterPool.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded pool of {@link DetectionEngine}s for every input size. Each engine wraps its own
+ * interpreter and buffers, so up to {@code maxSize} images can be detected in parallel.
+ * <p>
+ * The {@code maxSize} slots are shared by all input sizes, so at most {@code maxSize}
+ * interpreters are ever alive however many sizes get selected. Engines are created lazily on
+ * first demand; when every slot is taken, an idle engine of another size is closed to make room.
+ * Idle engines of a size nobody asked for within {@code idleCloseNanos} are closed as well, so a
+ * size that is no longer selected does not hold its memory.
+ * <p>
+ * Callers either check an engine out with {@link #acquire(int)} / {@link #release}, or hand a
+ * task to {@link #submit}, which runs it on the pool's own {@code maxSize} threads.
+ */
+final class InterpreterPool {
+
+    interface EngineFactory {
+        DetectionEngine create(int inputSize);
+    }
+
+    interface EngineTask<T> {
+        T run(DetectionEngine engine);
+    }
+
+    private static final long IDLE_CLOSE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final EngineFactory factory;
+    private final int maxSize;
+    private final long idleCloseNanos;
+    private final LongSupplier clock;
+    private final ExecutorService executor;
+
+    // Guarded by this
+    private final List<DetectionEngine> idle = new ArrayList<>();
+    private final List<DetectionEngine> engines = new ArrayList<>();
+    private final Map<Integer, Long> lastRequested = new HashMap<>();
+    /** Engines alive or being created; never more than {@link #maxSize}. */
+    private int slotsTaken;
+    private boolean closed;
+
+    InterpreterPool(EngineFactory factory, int maxSize) {
+        this(factory, maxSize, IDLE_CLOSE_NANOS, System::nanoTime);
+    }
+
+    InterpreterPool(EngineFactory factory, int maxSize, long idleCloseNanos, LongSupplier clock) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1");
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.idleCloseNanos = idleCloseNanos;
+        this.clock = clock;
+        AtomicInteger threadId = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(maxSize, r -> {
+            Thread t = new Thread(r, "detector-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    int maxSize() {
+        return maxSize;
+    }
+
+    /** Engines alive, of every size; never more than {@link #maxSize()}. */
+    synchronized int size() {
+        return engines.size();
+    }
+
+    /** Engines alive for {@code inputSize}. */
+    synchronized int size(int inputSize) {
+        int n = 0;
+        for (DetectionEngine engine : engines) {
+            if (engine.inputSize() == inputSize) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Checks out an engine for {@code inputSize}: an idle one of that size, else a new one in a
+     * free slot or in the slot of an idle engine of another size, else waits for a release.
+     */
+    DetectionEngine acquire(int inputSize) throws InterruptedException {
+        List<DetectionEngine> toClose = new ArrayList<>();
+        DetectionEngine engine;
+        try {
+            synchronized (this) {
+                lastRequested.put(inputSize, clock.getAsLong());
+                collectStale(toClose);
+                while (true) {
+                    if (closed) throw new IllegalStateException("Pool closed");
+                    engine = takeIdle(inputSize, true);
+                    if (engine != null) break;
+                    if (slotsTaken < maxSize) {
+                        slotsTaken++;
+                        break;
+                    }
+                    DetectionEngine other = takeIdle(inputSize, false);
+                    if (other != null) {
+                        // The slot passes from the evicted engine to the new one
+                        engines.remove(other);
+                        toClose.add(other);
+                        break;
+                    }
+                    wait();
+                }
+            }
+        } finally {
+            closeAll(toClose);
+        }
+        if (engine != null) return engine;
+        try {
+            engine = factory.create(inputSize);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                slotsTaken--;
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (!closed) {
+                engines.add(engine);
+                return engine;
+            }
+        }
+        engine.close();
+        throw new IllegalStateException("Pool closed");
+    }
+
+    /** Returns an engine obtained from {@link #acquire(int)}. */
+    void release(DetectionEngine engine) {
+        List<DetectionEngine> toClose = new ArrayList<>();
+        synchronized (this) {
+            // After close() the engine was closed with the others
+            if (closed) return;
+            idle.add(engine);
+            collectStale(toClose);
+            notifyAll();
+        }
+        closeAll(toClose);
+    }
+
+    /** Runs {@code task} with a checked-out engine for {@code inputSize} on one of the pool threads. */
+    <T> CompletableFuture<T> submit(int inputSize, EngineTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            DetectionEngine engine;
+            try {
+                engine = acquire(inputSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a detector", e);
+            }
+            try {
+                return task.run(engine);
+            } finally {
+                release(engine);
+            }
+        }, executor);
+    }
+
+    /** Stops the pool threads and closes every engine; engines still checked out are closed too. */
+    void close() {
+        executor.shutdownNow();
+        List<DetectionEngine> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(engines);
+            engines.clear();
+            idle.clear();
+            notifyAll();
+        }
+        closeAll(toClose);
+    }
+
+    /** Removes an idle engine of {@code inputSize}, or of any other size if {@code !sameSize}. */
+    private DetectionEngine takeIdle(int inputSize, boolean sameSize) {
+        for (Iterator<DetectionEngine> it = idle.iterator(); it.hasNext(); ) {
+            DetectionEngine engine = it.next();
+            if ((engine.inputSize() == inputSize) == sameSize) {
+                it.remove();
+                return engine;
+            }
+        }
+        return null;
+    }
+
+    /** Moves idle engines of sizes not requested within {@code idleCloseNanos} to {@code out}. */
+    private void collectStale(List<DetectionEngine> out) {
+        long now = clock.getAsLong();
+        for (Iterator<DetectionEngine> it = idle.iterator(); it.hasNext(); ) {
+            DetectionEngine engine = it.next();
+            Long requested = lastRequested.get(engine.inputSize());
+            if (requested != null && now - requested <= idleCloseNanos) continue;
+            it.remove();
+            engines.remove(engine);
+            slotsTaken--;
+            out.add(engine);
+        }
+    }
+
+    private static void closeAll(List<DetectionEngine> engines) {
+        for (DetectionEngine engine : engines) engine.close();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: LabelMap.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Class id to label mapping of the detector, one label per line of {@code labels.txt}. */
+final class LabelMap {
+
+    static final String UNKNOWN = "?";
+
+    private final String[] labels;
+
+    LabelMap(List<String> labels) {
+        this.labels = labels.toArray(new String[0]);
+    }
+
+    static LabelMap read(Reader reader) throws IOException {
+        List<String> labels = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) labels.add(line);
+        return new LabelMap(labels);
+    }
+
+    int size() {
+        return labels.length;
+    }
+
+    String get(int classId) {
+        return classId >= 0 && classId < labels.length ? labels[classId] : UNKNOWN;
+    }
+
+    /** Distinct labels of {@code batch}; it is sorted by score, so the best of each class comes first. */
+    Set<String> distinct(DetectionBatch batch) {
+        Set<String> out = new LinkedHashSet<>();
+        for (int i = 0; i < batch.size(); i++) out.add(get(batch.classIds[i]));
+        return out;
+    }
+}
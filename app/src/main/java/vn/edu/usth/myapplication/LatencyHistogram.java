@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: LatencyHistogram.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram for percentiles over every recorded sample, not just a window.
+ * <p>
+ * Buckets are log-linear in microseconds: exact below 8 us, then eight buckets per power of two,
+ * so a percentile is off by at most 1/16 of its value. Recording is a few atomic increments,
+ * cheap enough for every detection on every pool thread.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Highest power of two tracked; 2^40 us is about 12 days
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(indexOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    long count() {
+        return count.get();
+    }
+
+    double meanMillis() {
+        long n = count.get();
+        return n == 0 ? Double.NaN : totalMicros.get() / 1000.0 / n;
+    }
+
+    double maxMillis() {
+        return count.get() == 0 ? Double.NaN : maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Latency below which {@code percentile} percent of the samples fall, as the middle of the
+     * bucket holding that rank, or NaN without samples.
+     */
+    double percentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) return Double.NaN;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                long low = lowerBound(i), width = lowerBound(i + 1) - low;
+                return Math.min(low + (width - 1) / 2.0, maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && micros >= 1L << (MAX_EXPONENT + 1)) return BUCKETS - 1;
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+}
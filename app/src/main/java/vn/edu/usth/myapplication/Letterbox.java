@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: Letterbox.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/**
+ * Geometry of a source image fitted into the square model input: uniform {@code scale}, then
+ * {@code padX}/{@code padY} of grey border. Maps model-space coordinates back to the source.
+ */
+public final class Letterbox {
+
+    private int inputSize;
+    private int srcWidth;
+    private int srcHeight;
+    private float scale;
+    private int padX;
+    private int padY;
+    private int contentWidth;
+    private int contentHeight;
+
+    /** Fits a {@code srcWidth x srcHeight} image into an {@code inputSize} square. */
+    Letterbox fit(int srcWidth, int srcHeight, int inputSize) {
+        this.inputSize = inputSize;
+        this.srcWidth = srcWidth;
+        this.srcHeight = srcHeight;
+        scale = Math.min(inputSize / (float) srcWidth, inputSize / (float) srcHeight);
+        contentWidth = Math.max(1, Math.min(inputSize, Math.round(srcWidth * scale)));
+        contentHeight = Math.max(1, Math.min(inputSize, Math.round(srcHeight * scale)));
+        padX = (inputSize - contentWidth) / 2;
+        padY = (inputSize - contentHeight) / 2;
+        return this;
+    }
+
+    public int inputSize() {
+        return inputSize;
+    }
+
+    public int srcWidth() {
+        return srcWidth;
+    }
+
+    public int srcHeight() {
+        return srcHeight;
+    }
+
+    public float scale() {
+        return scale;
+    }
+
+    public int padX() {
+        return padX;
+    }
+
+    public int padY() {
+        return padY;
+    }
+
+    public int contentWidth() {
+        return contentWidth;
+    }
+
+    public int contentHeight() {
+        return contentHeight;
+    }
+
+    /** Source x of a model x in pixels, clamped to the image. */
+    public float toSourceX(float modelX) {
+        return clamp((modelX - padX) / scale, srcWidth);
+    }
+
+    /** Source y of a model y in pixels, clamped to the image. */
+    public float toSourceY(float modelY) {
+        return clamp((modelY - padY) / scale, srcHeight);
+    }
+
+    private static float clamp(float v, int max) {
+        return v < 0 ? 0 : (v > max ? max : v);
+    }
+}
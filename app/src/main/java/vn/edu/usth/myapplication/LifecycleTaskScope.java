@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: LifecycleTaskScope.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.Executor;
+
+/**
+ * {@link TaskScope} that cancels itself when a lifecycle is destroyed. A fragment binds its
+ * background work to {@code getViewLifecycleOwner()} and delivers results through {@link #main()},
+ * which drops them once the view is gone instead of crashing in {@code requireActivity()}.
+ */
+final class LifecycleTaskScope extends TaskScope implements LifecycleEventObserver {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Executor main = task -> handler.post(() -> {
+        if (isActive()) task.run();
+    });
+
+    private LifecycleTaskScope() {
+    }
+
+    static LifecycleTaskScope of(LifecycleOwner owner) {
+        LifecycleTaskScope scope = new LifecycleTaskScope();
+        owner.getLifecycle().addObserver(scope);
+        return scope;
+    }
+
+    /** Main thread executor that runs tasks only while the lifecycle is alive. */
+    Executor main() {
+        return main;
+    }
+
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner owner, @NonNull Lifecycle.Event event) {
+        if (event == Lifecycle.Event.ON_DESTROY) {
+            owner.getLifecycle().removeObserver(this);
+            cancel();
+        }
+    }
+}
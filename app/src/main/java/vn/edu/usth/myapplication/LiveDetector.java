@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: LiveDetector.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the detector on live camera frames from an {@link ImageAnalysis} use case configured
+ * with {@code STRATEGY_KEEP_ONLY_LATEST}; YUV frames go straight into the input tensor. Frames
+ * that arrive while one is being detected are dropped by CameraX, and frames that arrive before
+ * the model is ready are closed straight away, so the preview never waits on inference.
+ * <p>
+ * The detector only runs on the keyframes an {@link ObjectTracker} asks for; the frames in between
+ * move the tracked boxes forward without touching the image. The input size is picked per
+ * keyframe to fit {@link #FRAME_BUDGET_MS}. Detection latency, throughput and the share of
+ * frames that ran the detector are reported with every result.
+ */
+final class LiveDetector implements ImageAnalysis.Analyzer {
+
+    /** Keeps detection at 10+ FPS once the input size has adapted. */
+    static final long FRAME_BUDGET_MS = 80;
+    // Smoothing of the reported latency and frame rate
+    private static final double ALPHA = 0.1;
+
+    interface Listener {
+        /**
+         * Called on the analysis thread with tracked detections in pixels of an upright
+         * {@code width x height} frame; {@code detections} is a copy the listener may keep, and
+         * each label carries its track id.
+         */
+        void onDetections(DetectionBatch detections, String[] labels, int width, int height, Stats stats);
+    }
+
+    /** Smoothed timings of the recent frames. */
+    static final class Stats {
+        final double latencyMillis;
+        final double framesPerSecond;
+        final int inputSize;
+        /** Share of all frames so far that ran the detector. */
+        final double keyframeShare;
+        /** Times a shown object appeared or disappeared so far. */
+        final long labelChanges;
+
+        Stats(double latencyMillis, double framesPerSecond, int inputSize, double keyframeShare, long labelChanges) {
+            this.latencyMillis = latencyMillis;
+            this.framesPerSecond = framesPerSecond;
+            this.inputSize = inputSize;
+            this.keyframeShare = keyframeShare;
+            this.labelChanges = labelChanges;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%.1f fps  %.0f ms  %dpx  %.0f%% detected  %d changes",
+                    framesPerSecond, latencyMillis, inputSize, keyframeShare * 100, labelChanges);
+        }
+    }
+
+    private final CompletableFuture<YOLOv5Classifier> classifier;
+    private final Listener listener;
+    private final DetectionBatch batch = new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS);
+    private final DetectionBatch tracked = new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS);
+    private final int[] trackIds = new int[YoloPostprocessor.DEFAULT_MAX_DETECTIONS];
+    private final ObjectTracker tracker = new ObjectTracker();
+
+    private int frameWidth;
+    private int frameHeight;
+    private int inputSize;
+
+    private double latencyMillis = Double.NaN;
+    private double framesPerSecond;
+    private long lastFrameNanos;
+
+    LiveDetector(CompletableFuture<YOLOv5Classifier> classifier, Listener listener) {
+        this.classifier = classifier;
+        this.listener = listener;
+    }
+
+    @Override
+    public void analyze(@NonNull ImageProxy image) {
+        try {
+            YOLOv5Classifier detector = classifier.getNow(null);
+            if (detector == null) return;
+            int width = image.getCropRect().width(), height = image.getCropRect().height();
+            if (image.getImageInfo().getRotationDegrees() % 180 != 0) {
+                int t = width;
+                width = height;
+                height = t;
+            }
+            // Boxes from another frame geometry do not carry over
+            if (width != frameWidth || height != frameHeight) {
+                tracker.reset();
+                frameWidth = width;
+                frameHeight = height;
+            }
+
+            long start = System.nanoTime();
+            if (tracker.needsKeyframe()) {
+                inputSize = detector.selectInputSize(InputSizeSelector.Quality.BALANCED, FRAME_BUDGET_MS);
+                detector.detect(image, inputSize, batch);
+                tracker.update(batch);
+                double millis = (System.nanoTime() - start) / 1e6;
+                latencyMillis = Double.isNaN(latencyMillis) ? millis : latencyMillis + ALPHA * (millis - latencyMillis);
+            } else {
+                tracker.predict();
+            }
+            long end = System.nanoTime();
+            if (lastFrameNanos != 0) {
+                double fps = 1e9 / (end - lastFrameNanos);
+                framesPerSecond = framesPerSecond == 0 ? fps : framesPerSecond + ALPHA * (fps - framesPerSecond);
+            }
+            lastFrameNanos = end;
+
+            int n = tracker.snapshot(tracked, trackIds);
+            String[] labels = new String[n];
+            for (int i = 0; i < n; i++) labels[i] = detector.getLabel(tracked.classIds[i]) + " #" + trackIds[i];
+            listener.onDetections(tracked.copy(), labels, width, height, new Stats(latencyMillis, framesPerSecond,
+                    inputSize, tracker.keyframes() / (double) tracker.frames(), tracker.labelChanges()));
+        } finally {
+            image.close();
+        }
+    }
+}
@@ -28,12 +28,16 @@ public class LoginFragment extends Fragment {
 
     private EditText edtEmail, edtPassword;
     private UserDatabase userDatabase;
+    private LifecycleTaskScope scope;
+
+    private enum LoginResult { UNKNOWN_EMAIL, WRONG_PASSWORD, SUCCESS }
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_login, container, false);
         userDatabase = new UserDatabase(requireContext());
+        scope = LifecycleTaskScope.of(getViewLifecycleOwner());
 
         edtEmail = view.findViewById(R.id.edtEmail);
         edtPassword = view.findViewById(R.id.edtPassword);
@@ -49,27 +53,34 @@ public class LoginFragment extends Fragment {
                 return;
             }
 
-            // Check if email is registered
-            if (!userDatabase.isEmailRegistered(email)) {
-                Toast.makeText(getContext(), "Non-existent account. Please register!", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            // Validate credentials
-            if (userDatabase.validateLogin(email, password)) {
+            // The database is read on the io pool, not the main thread
+            btnLogin.setEnabled(false);
+            scope.bind(AppExecutors.get().io().supply(() -> {
+                // Check if email is registered
+                if (!userDatabase.isEmailRegistered(email)) return LoginResult.UNKNOWN_EMAIL;
+                // Validate credentials
+                if (!userDatabase.validateLogin(email, password)) return LoginResult.WRONG_PASSWORD;
                 // Save login session in database
                 userDatabase.saveLoginSession(email, true);
-
-                Toast.makeText(getContext(), "Login success!", Toast.LENGTH_SHORT).show();
-                NavController navController = Navigation.findNavController(requireActivity(), R.id.nav_host_fragment);
-                NavOptions navOptions = new NavOptions.Builder()
-                        .setPopUpTo(R.id.nav_welcome, true)
-                        .build();
-                navController.navigate(R.id.nav_home, null, navOptions);
-            } else {
-                // Email exists but password is wrong
-                Toast.makeText(getContext(), "Wrong password. Please try again!", Toast.LENGTH_SHORT).show();
-            }
+                return LoginResult.SUCCESS;
+            })).whenCompleteAsync((result, error) -> {
+                btnLogin.setEnabled(true);
+                if (error != null) {
+                    Toast.makeText(getContext(), "Login failed. Please try again.", Toast.LENGTH_SHORT).show();
+                } else if (result == LoginResult.UNKNOWN_EMAIL) {
+                    Toast.makeText(getContext(), "Non-existent account. Please register!", Toast.LENGTH_SHORT).show();
+                } else if (result == LoginResult.WRONG_PASSWORD) {
+                    // Email exists but password is wrong
+                    Toast.makeText(getContext(), "Wrong password. Please try again!", Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(getContext(), "Login success!", Toast.LENGTH_SHORT).show();
+                    NavController navController = Navigation.findNavController(requireActivity(), R.id.nav_host_fragment);
+                    NavOptions navOptions = new NavOptions.Builder()
+                            .setPopUpTo(R.id.nav_welcome, true)
+                            .build();
+                    navController.navigate(R.id.nav_home, null, navOptions);
+                }
+            }, scope.main());
         });
 
         btnRegister.setOnClickListener(v -> {
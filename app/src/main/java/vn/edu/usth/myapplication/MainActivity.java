@@ -13,6 +13,7 @@ import android.view.View;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.navigation.NavController;
+import androidx.navigation.NavOptions;
 import androidx.navigation.fragment.NavHostFragment;
 import androidx.navigation.ui.NavigationUI;
 
@@ -63,26 +64,9 @@ public class MainActivity extends AppCompatActivity {
             // Fix bottom navigation item selection to prevent bricking
             bottomNavigationView.setOnItemSelectedListener(item -> {
                 int itemId = item.getItemId();
-
-                // Always navigate to the selected destination, clearing back stack to that destination
-                if (itemId == R.id.nav_home) {
-                    navController.popBackStack(R.id.nav_home, false);
-                    if (navController.getCurrentDestination() == null ||
-                            navController.getCurrentDestination().getId() != R.id.nav_home) {
-                        navController.navigate(R.id.nav_home);
-                    }
-                    return true;
-                } else if (itemId == R.id.nav_camera) {
-                    navController.popBackStack(R.id.nav_home, false);
-                    navController.navigate(R.id.nav_camera);
-                    return true;
-                } else if (itemId == R.id.nav_history) {
-                    navController.popBackStack(R.id.nav_home, false);
-                    navController.navigate(R.id.nav_history);
-                    return true;
-                } else if (itemId == R.id.nav_settings) {
-                    navController.popBackStack(R.id.nav_home, false);
-                    navController.navigate(R.id.nav_settings);
+                if (itemId == R.id.nav_home || itemId == R.id.nav_camera ||
+                        itemId == R.id.nav_history || itemId == R.id.nav_settings) {
+                    navigateToTab(navController, itemId);
                     return true;
                 }
                 return false;
@@ -95,6 +79,24 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Shows a tab with the back stack it had when the user left it. The tab being left is saved
+     * rather than destroyed, so the camera screen comes back with its state while
+     * {@link CameraSession} keeps the camera itself open.
+     */
+    private void navigateToTab(NavController navController, int tabId) {
+        if (navController.getCurrentDestination() != null &&
+                navController.getCurrentDestination().getId() == tabId) {
+            return;
+        }
+        NavOptions options = new NavOptions.Builder()
+                .setLaunchSingleTop(true)
+                .setRestoreState(true)
+                .setPopUpTo(R.id.nav_home, false, true)
+                .build();
+        navController.navigate(tabId, null, options);
+    }
+
     private void checkLoginStatus(NavController navController) {
         // Check if user is logged in from database
         if (userDatabase.isLoggedIn()) {
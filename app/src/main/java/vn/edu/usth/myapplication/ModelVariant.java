@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ModelVariant.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/**
+ * YOLOv5s builds shipped in assets. The variant is read once, when the classifier is created.
+ * Each variant may also ship smaller input sizes, e.g. {@code yolov5s-fp16-320.tflite}.
+ */
+public enum ModelVariant {
+    /** fp16 weights, float32 input and output. */
+    FP16("yolov5s-fp16.tflite"),
+    /** Full-integer quantized: uint8 input and output, dequantized only where needed. */
+    INT8("yolov5s-int8.tflite");
+
+    static final String PREF_KEY = "model_variant";
+
+    public final String assetName;
+
+    ModelVariant(String assetName) {
+        this.assetName = assetName;
+    }
+
+    /** Asset of the model exported for {@code inputSize}; 640 is the unsuffixed default. */
+    public String assetName(int inputSize) {
+        if (inputSize == 640) return assetName;
+        return assetName.replace(".tflite", "-" + inputSize + ".tflite");
+    }
+
+    /** Parses a stored preference value, falling back to {@link #FP16}. */
+    public static ModelVariant fromName(String name) {
+        if (name != null) {
+            for (ModelVariant v : values()) {
+                if (v.name().equals(name)) return v;
+            }
+        }
+        return FP16;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ObjectTracker.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/**
+ * Carries detections across the frames between detector runs and gives each object a stable id.
+ * <p>
+ * On a keyframe the caller runs the detector and passes the result to {@link #update}; tracks are
+ * matched to detections of the same class by IoU. On every other frame {@link #predict} moves the
+ * tracks by their estimated velocity, a constant-velocity alpha-beta filter on the box centre.
+ * A keyframe is due every {@code keyframeInterval} frames, and on every frame while the last
+ * matches were poor, so fast motion falls back to detecting each frame.
+ * <p>
+ * A track that misses one keyframe is still shown, which keeps labels from flickering when the
+ * detector drops an object for a frame; {@link #labelChanges()} counts how often the shown set
+ * changed, to compare against raw detections.
+ */
+final class ObjectTracker {
+
+    static final int DEFAULT_KEYFRAME_INTERVAL = 4;
+
+    // Minimum IoU between a predicted track and a detection for them to match
+    private static final float MIN_MATCH_IOU = 0.3f;
+    // Mean match IoU below which the next frame is a keyframe again
+    private static final float MIN_TRACKING_QUALITY = 0.5f;
+    // Filter gains for position and velocity
+    private static final float ALPHA = 0.6f;
+    private static final float BETA = 0.2f;
+    // Keyframes a track may go unmatched before it is dropped, and while it is still shown
+    private static final int MAX_MISSES = 2;
+    private static final int SHOWN_MISSES = 1;
+
+    private final int keyframeInterval;
+    private final int capacity;
+
+    // Tracks as parallel arrays; box centre, size and per-frame centre velocity
+    private final float[] cx, cy, w, h, vx, vy;
+    private final float[] scores;
+    private final int[] classIds;
+    private final int[] ids;
+    private final int[] misses;
+    private int size;
+    private int nextId = 1;
+
+    private final boolean[] matchedTrack;
+    private final boolean[] matchedDetection;
+    private final int[] shownIds;
+    private int shownCount;
+
+    private int sinceKeyframe = -1;
+    private float trackingQuality = 1f;
+    private long frames;
+    private long keyframes;
+    private long labelChanges;
+
+    ObjectTracker(int keyframeInterval, int capacity) {
+        if (keyframeInterval < 1) throw new IllegalArgumentException("keyframeInterval < 1");
+        this.keyframeInterval = keyframeInterval;
+        this.capacity = capacity;
+        cx = new float[capacity];
+        cy = new float[capacity];
+        w = new float[capacity];
+        h = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        scores = new float[capacity];
+        classIds = new int[capacity];
+        ids = new int[capacity];
+        misses = new int[capacity];
+        matchedTrack = new boolean[capacity];
+        matchedDetection = new boolean[capacity];
+        shownIds = new int[capacity];
+    }
+
+    ObjectTracker() {
+        this(DEFAULT_KEYFRAME_INTERVAL, YoloPostprocessor.DEFAULT_MAX_DETECTIONS);
+    }
+
+    /** Whether the detector should run on the coming frame. */
+    boolean needsKeyframe() {
+        if (sinceKeyframe < 0) return true;
+        int interval = trackingQuality < MIN_TRACKING_QUALITY ? 1 : keyframeInterval;
+        return sinceKeyframe + 1 >= interval;
+    }
+
+    /** Advances the tracks one frame without a detection. */
+    void predict() {
+        for (int t = 0; t < size; t++) {
+            cx[t] += vx[t];
+            cy[t] += vy[t];
+        }
+        sinceKeyframe++;
+        frames++;
+        countLabelChanges();
+    }
+
+    /** Advances the tracks one frame and corrects them with the detector's result for it. */
+    void update(DetectionBatch detections) {
+        int dt = Math.max(1, sinceKeyframe + 1);
+        for (int t = 0; t < size; t++) {
+            cx[t] += vx[t];
+            cy[t] += vy[t];
+        }
+        int n = Math.min(detections.size(), capacity);
+        for (int d = 0; d < n; d++) matchedDetection[d] = false;
+
+        // Greedy matching, best overlap first; both sides are small
+        float quality = 0;
+        int matches = 0;
+        for (int t = 0; t < size; t++) matchedTrack[t] = false;
+        while (true) {
+            float best = MIN_MATCH_IOU;
+            int bestT = -1, bestD = -1;
+            for (int t = 0; t < size; t++) {
+                if (matchedTrack[t]) continue;
+                for (int d = 0; d < n; d++) {
+                    if (matchedDetection[d] || detections.classIds[d] != classIds[t]) continue;
+                    float iou = iou(t, detections.boxes, d * 4);
+                    if (iou > best) {
+                        best = iou;
+                        bestT = t;
+                        bestD = d;
+                    }
+                }
+            }
+            if (bestT < 0) break;
+            matchedTrack[bestT] = true;
+            matchedDetection[bestD] = true;
+            correct(bestT, detections, bestD, dt);
+            quality += best;
+            matches++;
+        }
+
+        // Age out unmatched tracks, keeping the order of the survivors
+        int kept = 0;
+        for (int t = 0; t < size; t++) {
+            if (!matchedTrack[t] && ++misses[t] > MAX_MISSES) continue;
+            if (kept != t) move(t, kept);
+            kept++;
+        }
+        size = kept;
+        for (int d = 0; d < n && size < capacity; d++) {
+            if (!matchedDetection[d]) start(detections, d);
+        }
+
+        // With nothing to match, tracking is as good as the last detection
+        trackingQuality = matches == 0 ? 1f : quality / matches;
+        sinceKeyframe = 0;
+        frames++;
+        keyframes++;
+        countLabelChanges();
+    }
+
+    /** Shown tracks into {@code out}, oldest first, with their ids in {@code trackIds}. */
+    int snapshot(DetectionBatch out, int[] trackIds) {
+        out.clear();
+        for (int t = 0; t < size; t++) {
+            if (misses[t] > SHOWN_MISSES) continue;
+            int i = out.size();
+            if (i == out.capacity() || i == trackIds.length) break;
+            out.add(cx[t] - w[t] / 2, cy[t] - h[t] / 2, cx[t] + w[t] / 2, cy[t] + h[t] / 2, scores[t], classIds[t]);
+            trackIds[i] = ids[t];
+        }
+        return out.size();
+    }
+
+    /** Drops every track, for a new scene or frame geometry. */
+    void reset() {
+        size = 0;
+        sinceKeyframe = -1;
+        trackingQuality = 1f;
+    }
+
+    long frames() {
+        return frames;
+    }
+
+    long keyframes() {
+        return keyframes;
+    }
+
+    /** Times a shown object appeared or disappeared, summed over all frames. */
+    long labelChanges() {
+        return labelChanges;
+    }
+
+    private void correct(int t, DetectionBatch detections, int d, int dt) {
+        int b = d * 4;
+        float mcx = (detections.boxes[b] + detections.boxes[b + 2]) / 2;
+        float mcy = (detections.boxes[b + 1] + detections.boxes[b + 3]) / 2;
+        float rx = mcx - cx[t], ry = mcy - cy[t];
+        cx[t] += ALPHA * rx;
+        cy[t] += ALPHA * ry;
+        vx[t] += BETA * rx / dt;
+        vy[t] += BETA * ry / dt;
+        w[t] += ALPHA * (detections.boxes[b + 2] - detections.boxes[b] - w[t]);
+        h[t] += ALPHA * (detections.boxes[b + 3] - detections.boxes[b + 1] - h[t]);
+        scores[t] = detections.scores[d];
+        misses[t] = 0;
+    }
+
+    private void start(DetectionBatch detections, int d) {
+        int t = size++, b = d * 4;
+        cx[t] = (detections.boxes[b] + detections.boxes[b + 2]) / 2;
+        cy[t] = (detections.boxes[b + 1] + detections.boxes[b + 3]) / 2;
+        w[t] = detections.boxes[b + 2] - detections.boxes[b];
+        h[t] = detections.boxes[b + 3] - detections.boxes[b + 1];
+        vx[t] = 0;
+        vy[t] = 0;
+        scores[t] = detections.scores[d];
+        classIds[t] = detections.classIds[d];
+        ids[t] = nextId++;
+        misses[t] = 0;
+    }
+
+    private void move(int from, int to) {
+        cx[to] = cx[from];
+        cy[to] = cy[from];
+        w[to] = w[from];
+        h[to] = h[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        scores[to] = scores[from];
+        classIds[to] = classIds[from];
+        ids[to] = ids[from];
+        misses[to] = misses[from];
+    }
+
+    private float iou(int t, float[] boxes, int b) {
+        float l = cx[t] - w[t] / 2, tp = cy[t] - h[t] / 2, r = cx[t] + w[t] / 2, bt = cy[t] + h[t] / 2;
+        float iw = Math.min(r, boxes[b + 2]) - Math.max(l, boxes[b]);
+        float ih = Math.min(bt, boxes[b + 3]) - Math.max(tp, boxes[b + 1]);
+        if (iw <= 0 || ih <= 0) return 0;
+        float inter = iw * ih;
+        float union = w[t] * h[t] + (boxes[b + 2] - boxes[b]) * (boxes[b + 3] - boxes[b + 1]) - inter;
+        return union <= 0 ? 0 : inter / union;
+    }
+
+    /**
+     * Compares the shown ids with the previous frame's. Tracks keep their order and new ones are
+     * appended with growing ids, so both lists are sorted.
+     */
+    private void countLabelChanges() {
+        int prev = 0, common = 0, now = 0;
+        for (int t = 0; t < size; t++) {
+            if (misses[t] > SHOWN_MISSES) continue;
+            int id = ids[t];
+            while (prev < shownCount && shownIds[prev] < id) prev++;
+            if (prev < shownCount && shownIds[prev] == id) common++;
+            now++;
+        }
+        labelChanges += (shownCount - common) + (now - common);
+        shownCount = 0;
+        for (int t = 0; t < size; t++) {
+            if (misses[t] <= SHOWN_MISSES) shownIds[shownCount++] = ids[t];
+        }
+    }
+}
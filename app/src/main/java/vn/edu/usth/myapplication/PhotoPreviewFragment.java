@@ -1,14 +1,13 @@
 package vn.edu.usth.myapplication;
 
-import android.content.ContentValues;
+import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.ImageDecoder;
 import android.net.Uri;
 import android.os.*;
-import android.provider.MediaStore;
 import android.view.*;
 import android.widget.*;
 import androidx.annotation.*;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
@@ -16,19 +15,26 @@ import com.google.android.material.floatingactionbutton.ExtendedFloatingActionBu
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 public class PhotoPreviewFragment extends Fragment {
 
     private static final String ARG_PHOTO_URI = "photo_uri";
     private static final String ARG_IS_TEMP = "is_temp";
+    private static final String ARG_CAPTURE_ID = "capture_id";
     private ImageView imgPreview;
     private TextView txtDetectedObjects;
+    private TextView txtLatencyStats;
     private FloatingActionButton btnSave;
     private ExtendedFloatingActionButton btnProceedTranslation;
     private String photoUri;
     private boolean isTemp = false;
-    private Bitmap currentBitmap;
+    private long captureId;
+    // The capture file this screen shows, kept from eviction while the screen exists
+    private File heldCapture;
     private final List<String> detectedObjectsList = new ArrayList<>();
+    private LifecycleTaskScope scope;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -36,7 +42,17 @@ public class PhotoPreviewFragment extends Fragment {
         if (getArguments() != null) {
             photoUri = getArguments().getString(ARG_PHOTO_URI);
             isTemp = getArguments().getBoolean(ARG_IS_TEMP, false);
+            captureId = getArguments().getLong(ARG_CAPTURE_ID, 0);
         }
+        CaptureStore store = CaptureStore.of(requireContext().getCacheDir());
+        heldCapture = store.fileOf(photoUri);
+        if (heldCapture != null) store.acquire(heldCapture);
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (heldCapture != null) CaptureStore.of(requireContext().getCacheDir()).release(heldCapture);
     }
 
     @Nullable
@@ -47,6 +63,7 @@ public class PhotoPreviewFragment extends Fragment {
         View v = inflater.inflate(R.layout.fragment_photo_preview, container, false);
         imgPreview = v.findViewById(R.id.img_preview);
         txtDetectedObjects = v.findViewById(R.id.txt_detected_objects);
+        txtLatencyStats = v.findViewById(R.id.txt_latency_stats);
         FloatingActionButton btnBack = v.findViewById(R.id.btn_back_to_camera);
         btnSave = v.findViewById(R.id.btn_save_photo);
         btnProceedTranslation = v.findViewById(R.id.btn_proceed_translation);
@@ -58,112 +75,181 @@ public class PhotoPreviewFragment extends Fragment {
         // Save button
         btnSave.setVisibility(isTemp ? View.VISIBLE : View.GONE);
         btnSave.setOnClickListener(v1 -> {
-            if (currentBitmap != null) savePhotoToGallery(currentBitmap);
-            else Toast.makeText(requireContext(), "No image to save", Toast.LENGTH_SHORT).show();
+            CaptureHandoff.Capture capture = CaptureHandoff.get(captureId);
+            if (capture != null) {
+                // Written to disk only now that the user wants to keep it
+                CaptureStore store = CaptureStore.of(requireContext().getCacheDir());
+                savePhotoToGallery(() -> Uri.fromFile(capture.persist(store)));
+            } else if (photoUri != null) {
+                savePhotoToGallery(() -> Uri.parse(photoUri));
+            } else {
+                Toast.makeText(requireContext(), "No image to save", Toast.LENGTH_SHORT).show();
+            }
         });
 
         // Translation button
         btnProceedTranslation.setOnClickListener(v1 -> proceedToTranslation());
 
-        // Load photo
-        if (photoUri != null) loadAndDetectObjects(photoUri);
+        if (BuildConfig.DEBUG) {
+            txtLatencyStats.setOnLongClickListener(v1 -> {
+                exportLatencyStats();
+                return true;
+            });
+            showLatencyStats();
+        }
         return v;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        // Loading and detection results are dropped once the view is gone
+        scope = LifecycleTaskScope.of(getViewLifecycleOwner());
+        CaptureHandoff.Capture capture = CaptureHandoff.get(captureId);
+        if (capture != null) showCapture(capture);
+        else if (photoUri != null) loadAndDetectObjects(photoUri);
+        else if (captureId != 0) txtDetectedObjects.setText(R.string.capture_unavailable);
+    }
+
+    /** A photo straight from the shutter: its detection started before this screen opened. */
+    private void showCapture(CaptureHandoff.Capture capture) {
+        android.util.DisplayMetrics screen = getResources().getDisplayMetrics();
+        int maxWidth = screen.widthPixels, maxHeight = screen.heightPixels;
+        scope.bind(AppExecutors.get().compute().supply(() ->
+                        ImageLoader.decodeForDisplay(capture.jpeg, capture.rotationDegrees, maxWidth, maxHeight)))
+                .whenCompleteAsync((bitmap, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                        Toast.makeText(requireContext(), "Failed to load image", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    imgPreview.setImageBitmap(bitmap);
+                }, scope.main());
+        txtDetectedObjects.setText("Analyzing...");
+        // Combined rather than chained, so leaving the screen does not cancel the shared detection
+        scope.bind(YOLOv5Classifier.whenReady(requireContext())
+                        .thenCombine(capture.detections, YOLOv5Classifier::labelsOf))
+                .whenCompleteAsync(this::showLabels, scope.main());
+    }
+
     private void loadAndDetectObjects(String uriString) {
-        try {
-            Uri uri = Uri.parse(uriString);
-            Bitmap bitmap;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-                bitmap = ImageDecoder.decodeBitmap(
-                        ImageDecoder.createSource(requireContext().getContentResolver(), uri));
-            } else {
-                bitmap = MediaStore.Images.Media.getBitmap(requireContext().getContentResolver(), uri);
-            }
-            currentBitmap = bitmap;
-            imgPreview.setImageBitmap(bitmap);
-            detectObjects(bitmap);
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(requireContext(), "Failed to load image", Toast.LENGTH_SHORT).show();
-        }
+        long start = System.nanoTime();
+        Uri uri = Uri.parse(uriString);
+        // The view gets a screen-sized hardware bitmap and the detector its own ~640 px copy, so
+        // the full-resolution photo is never decoded
+        android.content.ContentResolver resolver = requireContext().getContentResolver();
+        android.util.DisplayMetrics screen = getResources().getDisplayMetrics();
+        int maxWidth = screen.widthPixels, maxHeight = screen.heightPixels;
+        scope.bind(AppExecutors.get().compute().supply(() ->
+                        ImageLoader.decodeForDisplay(resolver, uri, maxWidth, maxHeight)))
+                .whenCompleteAsync((bitmap, error) -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                        Toast.makeText(requireContext(), "Failed to load image", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    imgPreview.setImageBitmap(bitmap);
+                }, scope.main());
+        detectObjects(uri, start);
     }
 
-    private void detectObjects(Bitmap bitmap) {
+    private void detectObjects(Uri source, long startNanos) {
         txtDetectedObjects.setText("Analyzing...");
-        new Thread(() -> {
-            Bitmap processed = bitmap.copy(Bitmap.Config.ARGB_8888, true);
-            List<YOLOv5Classifier.Result> results =
-                    YOLOv5Classifier.getInstance(requireContext()).detect(processed);
-
-            Set<String> labels = new LinkedHashSet<>();
-            for (YOLOv5Classifier.Result r : results) labels.add(r.label);
-
-            requireActivity().runOnUiThread(() -> {
-                txtDetectedObjects.setText(labels.isEmpty()
-                        ? "No objects detected"
-                        : "Detected: " + String.join(", ", labels));
-                imgPreview.setImageBitmap(processed);
-                detectedObjectsList.clear();
-                detectedObjectsList.addAll(labels);
-            });
-        }).start();
+        // Model load and inference run on the detector threads; nothing here blocks the UI.
+        // Returning to a photo seen before is answered from the detection cache; tiled mode
+        // decodes the original in slices instead and is not cached.
+        boolean tiled = YOLOv5Classifier.isTiledDetection(requireContext());
+        android.content.ContentResolver resolver = requireContext().getContentResolver();
+        scope.bind(YOLOv5Classifier.whenReady(requireContext())
+                        .thenCompose(classifier -> (tiled
+                                ? new TiledDetector(classifier, resolver).detectAsync(source)
+                                : detectDecoded(classifier, resolver, source))
+                                .thenApply(classifier::labelsOf)))
+                .whenCompleteAsync((labels, error) -> {
+                    if (error == null) PipelineMetrics.get().recordSince(PipelineMetrics.Stage.TOTAL, startNanos);
+                    showLabels(labels, error);
+                }, scope.main());
+    }
+
+    private void showLabels(Set<String> labels, Throwable error) {
+        showLatencyStats();
+        if (error != null) {
+            txtDetectedObjects.setText(R.string.detection_failed);
+            return;
+        }
+        txtDetectedObjects.setText(labels.isEmpty()
+                ? "No objects detected"
+                : "Detected: " + String.join(", ", labels));
+        detectedObjectsList.clear();
+        detectedObjectsList.addAll(labels);
+    }
+
+    /** Decodes for the largest input size, which covers whichever size gets selected. */
+    private static CompletableFuture<DetectionBatch> detectDecoded(YOLOv5Classifier classifier,
+                                                                  android.content.ContentResolver resolver,
+                                                                  Uri source) {
+        int inputSize = classifier.selectInputSize(InputSizeSelector.Quality.ACCURATE, 0);
+        return AppExecutors.get().compute().supply(() -> {
+            long start = System.nanoTime();
+            Bitmap bitmap = ImageLoader.decodeForDetection(resolver, source, inputSize);
+            PipelineMetrics.get().recordSince(PipelineMetrics.Stage.DECODE, start);
+            return bitmap;
+        }).thenCompose(bitmap -> classifier.detectAsync(bitmap, source)
+                .whenComplete((r, e) -> BitmapPool.get().put(bitmap)));
     }
 
-    private void savePhotoToGallery(Bitmap bitmap) {
-        new Thread(() -> {
-            String name = "CamStudy_" + System.currentTimeMillis() + ".jpg";
-            OutputStream fos = null;
+    private void showLatencyStats() {
+        if (!BuildConfig.DEBUG) return;
+        String summary = PipelineMetrics.get().summary();
+        String pools = AppExecutors.get().summary() + "\n" + BitmapPool.get().summary();
+        txtLatencyStats.setText(summary.isEmpty() ? pools : summary + "\n" + pools);
+        txtLatencyStats.setVisibility(View.VISIBLE);
+    }
 
+    /** Writes the stage histograms to app-specific storage, readable with adb without permissions. */
+    private void exportLatencyStats() {
+        Context context = requireContext().getApplicationContext();
+        File dir = new File(context.getExternalFilesDir(null), "latency");
+        AppExecutors.get().io().execute(() -> {
+            String message;
             try {
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                    // Scoped storage for Android 10+
-                    ContentValues values = new ContentValues();
-                    values.put(MediaStore.MediaColumns.DISPLAY_NAME, name);
-                    values.put(MediaStore.MediaColumns.MIME_TYPE, "image/jpeg");
-                    values.put(MediaStore.Images.Media.RELATIVE_PATH,
-                            Environment.DIRECTORY_PICTURES + "/CamStudy");
-                    Uri imageUri = requireContext().getContentResolver()
-                            .insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
-                    if (imageUri != null) {
-                        fos = requireContext().getContentResolver().openOutputStream(imageUri);
-                    }
-                } else {
-                    // Legacy external storage for Android 9 or lower
-                    File dir = new File(Environment.getExternalStoragePublicDirectory(
-                            Environment.DIRECTORY_PICTURES), "CamStudy");
-                    if (!dir.exists()) dir.mkdirs();
-                    File image = new File(dir, name);
-                    fos = new FileOutputStream(image);
-
-                    requireContext().sendBroadcast(
-                            new android.content.Intent(android.content.Intent.ACTION_MEDIA_SCANNER_SCAN_FILE,
-                                    Uri.fromFile(image))
-                    );
-                }
-
-                if (fos != null) {
-                    bitmap.compress(Bitmap.CompressFormat.JPEG, 100, fos);
-                    fos.close();
-                }
-
-                requireActivity().runOnUiThread(() ->
-                        Toast.makeText(requireContext(),
-                                "Photo saved to gallery!", Toast.LENGTH_SHORT).show());
+                File file = PipelineMetrics.get().export(dir, Build.MANUFACTURER + "-" + Build.MODEL);
+                message = context.getString(R.string.latency_exported, file.getAbsolutePath());
+            } catch (IOException e) {
+                e.printStackTrace();
+                message = context.getString(R.string.latency_export_failed);
+            }
+            String text = message;
+            ContextCompat.getMainExecutor(context).execute(() ->
+                    Toast.makeText(context, text, Toast.LENGTH_LONG).show());
+        });
+    }
 
+    /** Saves the photo {@code source} points to; it is evaluated on the io pool. */
+    private void savePhotoToGallery(Callable<Uri> source) {
+        // The save outlives this screen, so it holds the application context only
+        Context context = requireContext().getApplicationContext();
+        AppExecutors.get().io().execute(() -> {
+            String message;
+            try {
+                // The original bytes, EXIF included; the photo is never edited, so nothing to encode
+                GallerySaver.save(context, source.call());
+                message = "Photo saved to gallery!";
             } catch (Exception e) {
                 e.printStackTrace();
-                requireActivity().runOnUiThread(() ->
-                        Toast.makeText(requireContext(),
-                                "Failed to save photo", Toast.LENGTH_SHORT).show());
+                message = "Failed to save photo";
             }
-        }).start();
+            String text = message;
+            ContextCompat.getMainExecutor(context).execute(() ->
+                    Toast.makeText(context, text, Toast.LENGTH_SHORT).show());
+        });
     }
 
     private void proceedToTranslation() {
         Bundle b = new Bundle();
         b.putStringArray("detected_objects", detectedObjectsList.toArray(new String[0]));
         b.putString("photo_uri", photoUri);
+        b.putLong(ARG_CAPTURE_ID, captureId);
         NavController navController =
                 Navigation.findNavController(requireActivity(), R.id.nav_host_fragment);
         navController.navigate(R.id.action_photoPreviewFragment_to_translationFragment, b);
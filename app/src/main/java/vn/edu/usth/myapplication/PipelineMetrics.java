@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: PipelineMetrics.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Process-wide latency histograms for each stage of the photo to labels pipeline. Stages are
+ * timed with {@link System#nanoTime()} where they run; {@link #summary()} feeds the debug overlay
+ * and {@link #export} writes a CSV to compare devices and builds.
+ */
+final class PipelineMetrics {
+
+    enum Stage {
+        /** Image file to bitmap, or a tile region to bitmap. */
+        DECODE,
+        /** Hardware bitmap copied into a readable one. */
+        COPY,
+        /** Scaling, letterboxing and normalizing into the input tensor. */
+        PREPROCESS,
+        /** Interpreter run, output copy included. */
+        INFERENCE,
+        /** Box decoding and non-maximum suppression. */
+        POSTPROCESS,
+        /** From opening a photo to its labels, cache hits included. */
+        TOTAL,
+        /** From pressing the shutter to the detections of the photo, kept in memory; once per capture. */
+        SHUTTER,
+        /** From the camera screen opening to its first preview frame. */
+        CAMERA;
+
+        String key() {
+            return name().toLowerCase(Locale.US);
+        }
+    }
+
+    private static final PipelineMetrics INSTANCE = new PipelineMetrics();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+
+    PipelineMetrics() {
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+    }
+
+    static PipelineMetrics get() {
+        return INSTANCE;
+    }
+
+    void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].recordNanos(nanos);
+    }
+
+    /** Records the time since {@code startNanos}, a {@link System#nanoTime()} reading. */
+    void recordSince(Stage stage, long startNanos) {
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    void reset() {
+        for (LatencyHistogram histogram : histograms) histogram.reset();
+    }
+
+    /** One line per stage that has samples: count and p50/p95/p99 in milliseconds. */
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = histogram(stage);
+            if (h.count() == 0) continue;
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(String.format(Locale.US, "%-11s n=%-4d p50 %6.1f  p95 %6.1f  p99 %6.1f ms",
+                    stage.key(), h.count(), h.percentileMillis(50), h.percentileMillis(95), h.percentileMillis(99)));
+        }
+        return sb.toString();
+    }
+
+    void writeCsv(Writer out) throws IOException {
+        out.write("stage,count,p50_ms,p95_ms,p99_ms,max_ms,mean_ms\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram h = histogram(stage);
+            out.write(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f\n", stage.key(), h.count(),
+                    h.percentileMillis(50), h.percentileMillis(95), h.percentileMillis(99),
+                    h.maxMillis(), h.meanMillis()));
+        }
+    }
+
+    /** Writes the CSV to a new file in {@code dir} and returns it. */
+    File export(File dir, String deviceName) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        String safeName = deviceName.replaceAll("[^A-Za-z0-9._-]", "_");
+        File file = new File(dir, "latency-" + safeName + "-" + System.currentTimeMillis() + ".csv");
+        try (Writer out = new FileWriter(file)) {
+            writeCsv(out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: PixelSource.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/** Row-by-row access to ARGB pixels, so preprocessing never needs a full-frame copy. */
+interface PixelSource {
+
+    int width();
+
+    int height();
+
+    /** Copies the {@link #width()} ARGB pixels of row {@code y} into {@code dst}. */
+    void readRow(int y, int[] dst);
+}
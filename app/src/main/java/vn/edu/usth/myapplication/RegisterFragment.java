@@ -28,6 +28,9 @@ public class RegisterFragment extends Fragment {
 
     private EditText edtEmail, edtPassword, edtConfirmPassword;
     private UserDatabase userDatabase;
+    private LifecycleTaskScope scope;
+
+    private enum RegisterResult { EMAIL_TAKEN, SUCCESS, FAILED }
 
     @Nullable
     @Override
@@ -41,6 +44,7 @@ public class RegisterFragment extends Fragment {
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
+        scope = LifecycleTaskScope.of(getViewLifecycleOwner());
 
         edtEmail = view.findViewById(R.id.edtEmail);
         edtPassword = view.findViewById(R.id.edtPassword);
@@ -90,23 +94,27 @@ public class RegisterFragment extends Fragment {
                 return;
             }
 
-            // Check if email already exists using database
-            if (userDatabase.checkEmailExists(email)) {
-                edtEmail.setError("Email already registered");
-                edtEmail.requestFocus();
-                Toast.makeText(getContext(), "This email is already registered. Please login instead.", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            // Register user in database
-            if (userDatabase.registerUser(email, password)) {
-                Toast.makeText(getContext(), "Registration successful! Please login", Toast.LENGTH_SHORT).show();
-
-                NavController navController = Navigation.findNavController(requireActivity(), R.id.nav_host_fragment);
-                navController.popBackStack();
-            } else {
-                Toast.makeText(getContext(), "Registration failed. Please try again.", Toast.LENGTH_SHORT).show();
-            }
+            btnRegister.setEnabled(false);
+            scope.bind(AppExecutors.get().io().supply(() -> {
+                // Check if email already exists using database
+                if (userDatabase.checkEmailExists(email)) return RegisterResult.EMAIL_TAKEN;
+                // Register user in database
+                return userDatabase.registerUser(email, password) ? RegisterResult.SUCCESS : RegisterResult.FAILED;
+            })).whenCompleteAsync((result, error) -> {
+                btnRegister.setEnabled(true);
+                if (result == RegisterResult.EMAIL_TAKEN) {
+                    edtEmail.setError("Email already registered");
+                    edtEmail.requestFocus();
+                    Toast.makeText(getContext(), "This email is already registered. Please login instead.", Toast.LENGTH_SHORT).show();
+                } else if (result == RegisterResult.SUCCESS) {
+                    Toast.makeText(getContext(), "Registration successful! Please login", Toast.LENGTH_SHORT).show();
+
+                    NavController navController = Navigation.findNavController(requireActivity(), R.id.nav_host_fragment);
+                    navController.popBackStack();
+                } else {
+                    Toast.makeText(getContext(), "Registration failed. Please try again.", Toast.LENGTH_SHORT).show();
+                }
+            }, scope.main());
         });
 
         btnBack.setOnClickListener(v -> {
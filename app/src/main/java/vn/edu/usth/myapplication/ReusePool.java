@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ReusePool.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Large buffers kept for reuse, found by size, within a byte budget. Over budget, the buffers
+ * returned longest ago are released first. Thread-safe.
+ *
+ * @param <T> the pooled buffer, e.g. a bitmap
+ */
+final class ReusePool<T> {
+
+    interface Sizer<T> {
+        long bytes(T item);
+    }
+
+    /** Frees a buffer the pool no longer keeps. */
+    interface Releaser<T> {
+        void release(T item);
+    }
+
+    /** Wraps an item so equal items are still kept apart. */
+    private static final class Entry<T> {
+        final T item;
+        final long bytes;
+
+        Entry(T item, long bytes) {
+            this.item = item;
+            this.bytes = bytes;
+        }
+    }
+
+    private final Sizer<T> sizer;
+    private final Releaser<T> releaser;
+    // Entries by size, each bucket oldest first
+    private final TreeMap<Long, ArrayDeque<Entry<T>>> bySize = new TreeMap<>();
+    // Every entry, oldest first
+    private final LinkedHashSet<Entry<T>> byAge = new LinkedHashSet<>();
+    private long maxBytes;
+    private long bytes;
+    private long hits;
+    private long misses;
+
+    ReusePool(long maxBytes, Sizer<T> sizer, Releaser<T> releaser) {
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.releaser = releaser;
+    }
+
+    /**
+     * Takes the smallest buffer of {@code minBytes} to {@code maxBytes} out of the pool, or
+     * returns null. The upper bound keeps a large buffer from being tied up by a small request.
+     */
+    synchronized T take(long minBytes, long maxBytes) {
+        Map.Entry<Long, ArrayDeque<Entry<T>>> bucket = bySize.ceilingEntry(minBytes);
+        if (bucket == null || bucket.getKey() > maxBytes) {
+            misses++;
+            return null;
+        }
+        // The most recently returned one is the likeliest to still be in cache
+        Entry<T> entry = bucket.getValue().pollLast();
+        if (bucket.getValue().isEmpty()) bySize.remove(bucket.getKey());
+        byAge.remove(entry);
+        bytes -= entry.bytes;
+        hits++;
+        return entry.item;
+    }
+
+    /** Keeps {@code item} for reuse, or releases it if it alone exceeds the budget. */
+    synchronized void put(T item) {
+        long size = sizer.bytes(item);
+        if (size > maxBytes) {
+            releaser.release(item);
+            return;
+        }
+        Entry<T> entry = new Entry<>(item, size);
+        bySize.computeIfAbsent(size, k -> new ArrayDeque<>()).addLast(entry);
+        byAge.add(entry);
+        bytes += size;
+        trimTo(maxBytes);
+    }
+
+    /** Changes the budget, releasing the oldest buffers until the pool fits. */
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trimTo(maxBytes);
+    }
+
+    /** Releases the oldest buffers until at most {@code target} bytes are kept. */
+    synchronized void trimTo(long target) {
+        Iterator<Entry<T>> oldest = byAge.iterator();
+        while (bytes > target && oldest.hasNext()) {
+            Entry<T> entry = oldest.next();
+            oldest.remove();
+            // Buckets are oldest first too, so the oldest entry overall heads its bucket
+            ArrayDeque<Entry<T>> bucket = bySize.get(entry.bytes);
+            bucket.pollFirst();
+            if (bucket.isEmpty()) bySize.remove(entry.bytes);
+            bytes -= entry.bytes;
+            releaser.release(entry.item);
+        }
+    }
+
+    void clear() {
+        trimTo(0);
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    synchronized long maxBytes() {
+        return maxBytes;
+    }
+
+    synchronized int size() {
+        return byAge.size();
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+}
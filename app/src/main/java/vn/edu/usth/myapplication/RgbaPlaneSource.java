@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: RgbaPlaneSource.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link PixelSource} over an RGBA_8888 camera plane, rotated upright while rows are read, so a
+ * frame goes into the preprocessor without a bitmap. Reused across frames through {@link #set}.
+ */
+final class RgbaPlaneSource implements PixelSource {
+
+    private ByteBuffer plane;
+    private int bufferWidth;
+    private int bufferHeight;
+    private int rowStride;
+    private int rotation;
+
+    /** {@code rotationDegrees} is how far the buffer must turn clockwise to be upright. */
+    RgbaPlaneSource set(ByteBuffer plane, int width, int height, int rowStride, int rotationDegrees) {
+        this.plane = plane;
+        bufferWidth = width;
+        bufferHeight = height;
+        this.rowStride = rowStride;
+        rotation = ((rotationDegrees % 360) + 360) % 360;
+        return this;
+    }
+
+    @Override
+    public int width() {
+        return rotation == 90 || rotation == 270 ? bufferHeight : bufferWidth;
+    }
+
+    @Override
+    public int height() {
+        return rotation == 90 || rotation == 270 ? bufferWidth : bufferHeight;
+    }
+
+    @Override
+    public void readRow(int y, int[] dst) {
+        int w = width();
+        // Start offset and step through the buffer for upright row y
+        int offset, step;
+        switch (rotation) {
+            case 90:
+                offset = (bufferHeight - 1) * rowStride + y * 4;
+                step = -rowStride;
+                break;
+            case 180:
+                offset = (bufferHeight - 1 - y) * rowStride + (bufferWidth - 1) * 4;
+                step = -4;
+                break;
+            case 270:
+                offset = (bufferWidth - 1 - y) * 4;
+                step = rowStride;
+                break;
+            default:
+                offset = y * rowStride;
+                step = 4;
+                break;
+        }
+        ByteBuffer p = plane;
+        for (int x = 0; x < w; x++, offset += step) {
+            dst[x] = 0xFF000000 | (p.get(offset) & 0xFF) << 16 | (p.get(offset + 1) & 0xFF) << 8
+                    | (p.get(offset + 2) & 0xFF);
+        }
+    }
+}
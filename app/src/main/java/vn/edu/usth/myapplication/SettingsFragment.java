@@ -33,6 +33,8 @@ public class SettingsFragment extends Fragment {
 
     private SharedPreferences sharedPreferences;
     private SwitchMaterial switchDarkMode;
+    private SwitchMaterial switchTiledDetection;
+    private SwitchMaterial switchQuickCapture;
     private UserDatabase userDatabase;
     private boolean isDarkModeChanging = false;
 
@@ -46,6 +48,8 @@ public class SettingsFragment extends Fragment {
         userDatabase = new UserDatabase(requireContext());
         LinearLayout btnFeedback = view.findViewById(R.id.btnFeedback);
         switchDarkMode = view.findViewById(R.id.switch_dark_mode);
+        switchTiledDetection = view.findViewById(R.id.switch_tiled_detection);
+        switchQuickCapture = view.findViewById(R.id.switch_quick_capture);
         LinearLayout logoutLayout = view.findViewById(R.id.layout_logout);
         TextView txtVersion = view.findViewById(R.id.txt_version);
 
@@ -69,6 +73,10 @@ public class SettingsFragment extends Fragment {
                 showRestartDialog(isChecked);
             }
         });
+        switchTiledDetection.setOnCheckedChangeListener((buttonView, isChecked) ->
+                YOLOv5Classifier.setTiledDetection(requireContext(), isChecked));
+        switchQuickCapture.setOnCheckedChangeListener((buttonView, isChecked) ->
+                CaptureProfile.save(requireContext(), isChecked ? CaptureProfile.DETECT : CaptureProfile.PHOTO));
         btnFeedback.setOnClickListener(v -> {
             try {
                 Intent emailIntent = new Intent(Intent.ACTION_SEND);
@@ -89,6 +97,8 @@ public class SettingsFragment extends Fragment {
 
     private void loadPreferences() {
         switchDarkMode.setChecked(sharedPreferences.getBoolean("dark_mode", false));
+        switchTiledDetection.setChecked(YOLOv5Classifier.isTiledDetection(requireContext()));
+        switchQuickCapture.setChecked(CaptureProfile.load(requireContext()) == CaptureProfile.DETECT);
     }
 
     private void savePreference(String key, boolean value) {
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: StreamCopy.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/** Copies bytes between streams without decoding them. */
+final class StreamCopy {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private StreamCopy() {
+    }
+
+    /**
+     * Copies the rest of {@code in} to {@code out} and returns the number of bytes copied. Neither
+     * stream is closed. Between two files (a MediaStore output stream is backed by one) the kernel
+     * moves the bytes through {@link FileChannel#transferTo}; anything else goes through a 64 KiB
+     * buffer.
+     */
+    static long copy(InputStream in, OutputStream out) throws IOException {
+        if (in instanceof FileInputStream && out instanceof FileOutputStream) {
+            return transfer(((FileInputStream) in).getChannel(), ((FileOutputStream) out).getChannel());
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        for (int n; (n = in.read(buffer)) != -1; ) {
+            out.write(buffer, 0, n);
+            total += n;
+        }
+        out.flush();
+        return total;
+    }
+
+    private static long transfer(FileChannel source, FileChannel target) throws IOException {
+        long position = source.position(), size = source.size(), total = 0;
+        // transferTo may move fewer bytes than asked, e.g. at most 2 GB per call on some kernels
+        while (position + total < size) {
+            long n = source.transferTo(position + total, size - position - total, target);
+            if (n <= 0) break;
+            total += n;
+        }
+        source.position(position + total);
+        return total;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: TaskScope.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background tasks owned by something shorter-lived than the process, such as a screen.
+ * {@link #cancel()} cancels every task still running, and anything bound afterwards is cancelled
+ * straight away, so results never arrive at an owner that is gone.
+ */
+class TaskScope {
+
+    private final Set<CompletableFuture<?>> tasks = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /** Ties {@code task} to this scope and returns it. */
+    <T> CompletableFuture<T> bind(CompletableFuture<T> task) {
+        tasks.add(task);
+        task.whenComplete((r, e) -> tasks.remove(task));
+        // Checked after adding, so a concurrent cancel() cannot miss the task
+        if (cancelled) task.cancel(false);
+        return task;
+    }
+
+    boolean isActive() {
+        return !cancelled;
+    }
+
+    /** Tasks bound and not finished yet. */
+    int size() {
+        return tasks.size();
+    }
+
+    void cancel() {
+        cancelled = true;
+        for (CompletableFuture<?> task : tasks) task.cancel(false);
+        tasks.clear();
+    }
+}
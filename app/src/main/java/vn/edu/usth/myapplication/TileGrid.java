@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: TileGrid.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/**
+ * Overlapping square tiles covering an image, for sliced inference on high-resolution photos.
+ * <p>
+ * Tiles are spread evenly so the last one ends on the image edge, which keeps every overlap at
+ * least the requested fraction. When the image would need more than {@code maxTiles}, the tile
+ * grows until it does not, so the number of inferences, and with it the latency, stays bounded.
+ */
+final class TileGrid {
+
+    static final int DEFAULT_TILE_SIZE = 1280;
+    static final float DEFAULT_OVERLAP = 0.2f;
+    static final int DEFAULT_MAX_TILES = 12;
+
+    private TileGrid() {
+    }
+
+    /** Tiles for the default size, overlap and cap. */
+    static int[] tiles(int width, int height) {
+        return tiles(width, height, DEFAULT_TILE_SIZE, DEFAULT_OVERLAP, DEFAULT_MAX_TILES);
+    }
+
+    /**
+     * Returns tile {@code i} as {@code [4i..4i+3] = left, top, right, bottom} in image pixels.
+     * An image no larger than one tile gets a single tile covering all of it.
+     */
+    static int[] tiles(int width, int height, int tileSize, float overlap, int maxTiles) {
+        int tile = tileSize;
+        int cols = count(width, tile, overlap);
+        int rows = count(height, tile, overlap);
+        while (cols * rows > maxTiles) {
+            tile += tile / 4;
+            cols = count(width, tile, overlap);
+            rows = count(height, tile, overlap);
+        }
+        int tileW = Math.min(tile, width), tileH = Math.min(tile, height);
+        int[] out = new int[cols * rows * 4];
+        int o = 0;
+        for (int r = 0; r < rows; r++) {
+            int top = start(r, rows, height, tileH);
+            for (int c = 0; c < cols; c++) {
+                int left = start(c, cols, width, tileW);
+                out[o++] = left;
+                out[o++] = top;
+                out[o++] = left + tileW;
+                out[o++] = top + tileH;
+            }
+        }
+        return out;
+    }
+
+    private static int count(int length, int tile, float overlap) {
+        if (length <= tile) return 1;
+        int step = Math.max(1, (int) (tile * (1 - overlap)));
+        return (length - tile + step - 1) / step + 1;
+    }
+
+    private static int start(int i, int n, int length, int tile) {
+        return n == 1 ? 0 : (int) ((long) i * (length - tile) / (n - 1));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: TileMerger.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.util.Arrays;
+
+/**
+ * Merges per-tile detections into one image-wide batch with cross-tile NMS.
+ * <p>
+ * An object on a tile border is found whole by one tile and cut off by its neighbour, so plain
+ * IoU would keep both. Boxes of the same class are matched by intersection over the smaller
+ * box instead, which treats the cut-off part as a duplicate of the whole one.
+ */
+final class TileMerger {
+
+    static final float DEFAULT_MATCH_THRESHOLD = 0.6f;
+
+    private final float matchThreshold;
+    private float[] boxes;
+    private float[] scores;
+    private int[] classIds;
+    private int[] order;
+    private boolean[] suppressed;
+    private int size;
+
+    TileMerger(int capacity) {
+        this(capacity, DEFAULT_MATCH_THRESHOLD);
+    }
+
+    TileMerger(int capacity, float matchThreshold) {
+        this.matchThreshold = matchThreshold;
+        boxes = new float[capacity * 4];
+        scores = new float[capacity];
+        classIds = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Adds {@code batch} with its boxes scaled by {@code scale}, then shifted by the offset. */
+    void add(DetectionBatch batch, float offsetX, float offsetY, float scale) {
+        ensureCapacity(size + batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            int s = i * 4, d = size * 4;
+            boxes[d] = batch.boxes[s] * scale + offsetX;
+            boxes[d + 1] = batch.boxes[s + 1] * scale + offsetY;
+            boxes[d + 2] = batch.boxes[s + 2] * scale + offsetX;
+            boxes[d + 3] = batch.boxes[s + 3] * scale + offsetY;
+            scores[size] = batch.scores[i];
+            classIds[size] = batch.classIds[i];
+            size++;
+        }
+    }
+
+    /** Writes the merged detections into {@code out} by descending score and returns their number. */
+    int merge(DetectionBatch out) {
+        out.clear();
+        if (order == null || order.length < size) {
+            order = new int[scores.length];
+            suppressed = new boolean[scores.length];
+        }
+        // Insertion sort: a few hundred boxes at most, already sorted within each tile
+        for (int i = 0; i < size; i++) {
+            int j = i;
+            while (j > 0 && scores[order[j - 1]] < scores[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+            suppressed[i] = false;
+        }
+        for (int i = 0; i < size && out.size() < out.capacity(); i++) {
+            if (suppressed[i]) continue;
+            int a = order[i];
+            out.add(boxes[a * 4], boxes[a * 4 + 1], boxes[a * 4 + 2], boxes[a * 4 + 3], scores[a], classIds[a]);
+            for (int j = i + 1; j < size; j++) {
+                int b = order[j];
+                if (!suppressed[j] && classIds[b] == classIds[a]
+                        && intersectionOverSmaller(boxes, a * 4, b * 4) > matchThreshold) {
+                    suppressed[j] = true;
+                }
+            }
+        }
+        return out.size();
+    }
+
+    static float intersectionOverSmaller(float[] boxes, int a, int b) {
+        float iw = Math.min(boxes[a + 2], boxes[b + 2]) - Math.max(boxes[a], boxes[b]);
+        float ih = Math.min(boxes[a + 3], boxes[b + 3]) - Math.max(boxes[a + 1], boxes[b + 1]);
+        if (iw <= 0 || ih <= 0) return 0f;
+        float areaA = (boxes[a + 2] - boxes[a]) * (boxes[a + 3] - boxes[a + 1]);
+        float areaB = (boxes[b + 2] - boxes[b]) * (boxes[b + 3] - boxes[b + 1]);
+        return iw * ih / Math.min(areaA, areaB);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= scores.length) return;
+        int capacity = Math.max(needed, scores.length * 2);
+        boxes = Arrays.copyOf(boxes, capacity * 4);
+        scores = Arrays.copyOf(scores, capacity);
+        classIds = Arrays.copyOf(classIds, capacity);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: TiledDetector.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.os.Build;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sliced inference for high-resolution photos, where squashing the whole frame to the model
+ * input makes small objects vanish.
+ * <p>
+ * The photo is cut into overlapping {@link TileGrid} tiles. Each tile is decoded on its own with
+ * {@link BitmapRegionDecoder}, so the full-resolution bitmap never exists, and detected on the
+ * classifier's interpreter pool, so tiles run in parallel. A subsampled pass over the whole
+ * frame keeps objects larger than a tile, and {@link TileMerger} removes the duplicates.
+ * Boxes are in the coordinates of the encoded image, before any EXIF rotation.
+ */
+final class TiledDetector {
+
+    private final YOLOv5Classifier classifier;
+    private final ContentResolver resolver;
+
+    TiledDetector(YOLOv5Classifier classifier, ContentResolver resolver) {
+        this.classifier = classifier;
+        this.resolver = resolver;
+    }
+
+    CompletableFuture<DetectionBatch> detectAsync(Uri source) {
+        return AppExecutors.get().io().supply(() -> open(source)).thenCompose(this::detectTiles);
+    }
+
+    private CompletableFuture<DetectionBatch> detectTiles(BitmapRegionDecoder decoder) {
+        int width = decoder.getWidth(), height = decoder.getHeight();
+        int inputSize = classifier.selectInputSize(InputSizeSelector.Quality.ACCURATE, 0);
+        int[] tiles = TileGrid.tiles(width, height);
+        int count = tiles.length / 4;
+
+        // The overview is subsampled by a power of two to roughly the model input
+        int sample = DecodeSizes.sampleSize(width, height, inputSize);
+        float overviewScale = sample;
+        BitmapFactory.Options overviewOptions = options(sample);
+        CompletableFuture<DetectionBatch> overview = classifier.detectAsync(
+                () -> decoder.decodeRegion(new Rect(0, 0, width, height), overviewOptions), inputSize);
+        if (count == 1) {
+            return overview.whenComplete((r, e) -> decoder.recycle());
+        }
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<DetectionBatch>[] parts = new CompletableFuture[count];
+        for (int i = 0; i < count; i++) {
+            Rect rect = new Rect(tiles[i * 4], tiles[i * 4 + 1], tiles[i * 4 + 2], tiles[i * 4 + 3]);
+            parts[i] = classifier.detectAsync(() -> decodeTile(decoder, rect), inputSize);
+        }
+        CompletableFuture<?>[] all = new CompletableFuture<?>[count + 1];
+        System.arraycopy(parts, 0, all, 0, count);
+        all[count] = overview;
+        // allOf settles only once every decode has finished, failed or not, so the decoder is
+        // recycled when nothing can still be reading from it
+        return CompletableFuture.allOf(all).handle((ignored, error) -> {
+            decoder.recycle();
+            if (error != null) {
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            }
+            TileMerger merger = new TileMerger((count + 1) * YoloPostprocessor.DEFAULT_MAX_DETECTIONS);
+            merger.add(overview.join(), 0, 0, overviewScale);
+            for (int i = 0; i < count; i++) merger.add(parts[i].join(), tiles[i * 4], tiles[i * 4 + 1], 1f);
+            DetectionBatch out = new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS);
+            merger.merge(out);
+            return out;
+        });
+    }
+
+    private BitmapRegionDecoder open(Uri source) {
+        try (InputStream in = resolver.openInputStream(source)) {
+            if (in == null) throw new IOException("Cannot open " + source);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) return BitmapRegionDecoder.newInstance(in);
+            //noinspection deprecation
+            return BitmapRegionDecoder.newInstance(in, false);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Tiles all have the same size, so after the first round each one decodes into a buffer a
+     * previous tile gave back to the {@link BitmapPool}.
+     */
+    private static Bitmap decodeTile(BitmapRegionDecoder decoder, Rect rect) {
+        BitmapFactory.Options options = options(1);
+        BitmapPool.get().prepare(options, rect.width(), rect.height());
+        return decoder.decodeRegion(rect, options);
+    }
+
+    private static BitmapFactory.Options options(int sampleSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        return options;
+    }
+}
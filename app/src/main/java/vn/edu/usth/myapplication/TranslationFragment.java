@@ -39,6 +39,7 @@ public class TranslationFragment extends Fragment {
     private static final String ARG_DETECTED_OBJECTS = "detected_objects";
     private static final String ARG_PHOTO_URI = "photo_uri";
     private static final String ARG_USER_INPUT_TEXT = "user_input_text";
+    private static final String ARG_CAPTURE_ID = "capture_id";
 
     // ===== Ngôn ngữ: tên ↔ mã (gọn)
     private static final String[][] LANGS = {
@@ -54,6 +55,7 @@ public class TranslationFragment extends Fragment {
     private final List<String> languageNames = new ArrayList<>();
 
     private ImageView imgPreview;
+    private LifecycleTaskScope scope;
 
     private TextView txtObjectDetected, txtSourceLanguage;
     private TextInputEditText etSourceText, etTranslatedText;
@@ -63,6 +65,8 @@ public class TranslationFragment extends Fragment {
 
     private String[] detectedObjects;
     private String photoUri;
+    private long captureId;
+    private java.io.File heldCapture;
     private String userInputText;
 
 
@@ -77,7 +81,12 @@ public class TranslationFragment extends Fragment {
             detectedObjects = getArguments().getStringArray(ARG_DETECTED_OBJECTS);
             photoUri = getArguments().getString(ARG_PHOTO_URI);
             userInputText = getArguments().getString(ARG_USER_INPUT_TEXT);
+            captureId = getArguments().getLong(ARG_CAPTURE_ID, 0);
         }
+        // Keep the photo shown here from being evicted from the cache meanwhile
+        CaptureStore store = CaptureStore.of(requireContext().getCacheDir());
+        heldCapture = store.fileOf(photoUri);
+        if (heldCapture != null) store.acquire(heldCapture);
 
         for (String[] row : LANGS) { languageMap.put(row[0], row[1]); languageNames.add(row[0]); }
         languageNames.sort(String::compareTo);
@@ -109,14 +118,28 @@ public class TranslationFragment extends Fragment {
         progressBar         = v.findViewById(R.id.progress_bar);
 
         setupLanguageDropdown();
-        bindSimpleUi();
 
         return v;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        // Decoding and translation results are dropped once the view is gone
+        scope = LifecycleTaskScope.of(getViewLifecycleOwner());
+        bindSimpleUi();
+    }
+
     private void bindSimpleUi() {
         // Hiển thị object phát hiện (nếu có) + điền sẵn vào ô nguồn
-        if (imgPreview != null && photoUri != null && !photoUri.isEmpty()) {
+        CaptureHandoff.Capture capture = CaptureHandoff.get(captureId);
+        if (imgPreview != null && capture != null) {
+            // A photo kept in memory by the camera: decoded off the main thread, never written out
+            android.util.DisplayMetrics screen = getResources().getDisplayMetrics();
+            scope.bind(AppExecutors.get().compute().supply(() -> ImageLoader.decodeForDisplay(capture.jpeg,
+                            capture.rotationDegrees, screen.widthPixels, screen.heightPixels)))
+                    .thenAcceptAsync(imgPreview::setImageBitmap, scope.main());
+        } else if (imgPreview != null && photoUri != null && !photoUri.isEmpty()) {
             try { imgPreview.setImageURI(android.net.Uri.parse(photoUri)); } catch (Exception ignored) {}
         }
         String first = (detectedObjects != null && detectedObjects.length > 0) ? detectedObjects[0] : null;
@@ -185,12 +208,7 @@ public class TranslationFragment extends Fragment {
         setLoading(true);
         translatorService.translate(src, currentTargetCode, new AzureTranslatorService.TranslationCallback() {
             @Override public void onSuccess(String out) {
-                runOnUi(() -> {
-                    // Check if fragment is still attached and view exists
-                    if (!isAdded() || getView() == null) {
-                        return;
-                    }
-
+                scope.main().execute(() -> {
                     etTranslatedText.setText(out);
                     setLoading(false);
 
@@ -209,16 +227,13 @@ public class TranslationFragment extends Fragment {
                         toast("Translation completed!");
                     }
 
-                    TranslationHistoryDatabase db = new TranslationHistoryDatabase(getContext());
-                    db.addTranslation(safeText(etSourceText), out);
+                    TranslationHistoryDatabase db = new TranslationHistoryDatabase(requireContext().getApplicationContext());
+                    String source = safeText(etSourceText);
+                    scope.bind(AppExecutors.get().io().run(() -> db.addTranslation(source, out)));
                 });
             }
             @Override public void onError(String err) {
-                runOnUi(() -> {
-                    // Check if fragment is still attached
-                    if (!isAdded() || getView() == null) {
-                        return;
-                    }
+                scope.main().execute(() -> {
                     setLoading(false);
                     toast("Azure error. Check key/region in local.properties");
                 });
@@ -246,14 +261,9 @@ public class TranslationFragment extends Fragment {
         }
     }
 
-    private void runOnUi(Runnable r) {
-        if (getActivity() != null && isAdded()) {
-            getActivity().runOnUiThread(r);
-        }
-    }
-
     @Override public void onDestroy() {
         if (tts != null) { try { tts.stop(); tts.shutdown(); } catch (Exception ignored) {} }
+        if (heldCapture != null) CaptureStore.of(requireContext().getCacheDir()).release(heldCapture);
         super.onDestroy();
     }
 }
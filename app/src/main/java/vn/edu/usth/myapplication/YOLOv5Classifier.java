@@ -1,35 +1,331 @@
 package vn.edu.usth.myapplication;
 
+import android.content.ContentResolver;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.content.res.AssetFileDescriptor;
+import android.database.Cursor;
 import android.graphics.Bitmap;
+import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.util.Log;
+import androidx.camera.core.ImageProxy;
+import org.tensorflow.lite.DataType;
 import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
 import java.io.*;
 import java.nio.*;
 import java.nio.channels.FileChannel;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public final class YOLOv5Classifier {
+    private static final String TAG = "YOLOv5Classifier";
+    private static final String PREFS = "PhotoMagicPrefs";
+    private static final String PREF_POOL_SIZE = "detector_pool_size";
+    private static final String PREF_EXECUTION = "execution_options";
+    private static final String PREF_TUNED_VARIANT = "execution_tuned_variant";
+    private static final String PREF_TILED = "tiled_detection";
+    private static final int CACHE_MEMORY_ENTRIES = 32;
+    private static final int CACHE_DISK_ENTRIES = 256;
+    // Tuning waits until no detection has run for this long, so it neither slows nor is skewed by one
+    private static final long TUNE_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    /** Latency target of {@link InputSizeSelector.Quality#BALANCED} requests without their own budget. */
+    public static final long DEFAULT_BUDGET_MS = 250;
     private static YOLOv5Classifier instance;
-    private final Interpreter interpreter;
-    private final int inputSize = 640;
-    private final List<String> labels = new ArrayList<>();
+    private static CompletableFuture<YOLOv5Classifier> ready;
+    private final ModelVariant variant;
+    // Interpreter options per input size: each size tuned on its own, else the stored default
+    private final Map<Integer, ExecutionOptions> options = new TreeMap<>();
+    private final int poolSize;
+    private final LabelMap labels;
+    private final ContentResolver resolver;
+    private final DetectionCache cache;
 
-    private YOLOv5Classifier(Context context) {
+    // Models by the size of their input tensor; the largest is the default for warm-up and detect()
+    private final Map<Integer, MappedByteBuffer> models;
+    private final InputSizeSelector sizes;
+    private final int inputSize;
+
+    // poolSize engines shared by all input sizes, so probing another size never adds
+    // interpreters. Each engine owns one interpreter plus its tensors and scratch buffers.
+    private final InterpreterPool pool;
+
+    // Camera frames are converted on the analysis thread; its plane copies are reused per frame
+    private final ThreadLocal<YuvPlaneSource> yuvSources = new ThreadLocal<YuvPlaneSource>() {
+        @Override
+        protected YuvPlaneSource initialValue() {
+            return new YuvPlaneSource();
+        }
+    };
+    private final ThreadLocal<RgbaPlaneSource> rgbaSources = new ThreadLocal<RgbaPlaneSource>() {
+        @Override
+        protected RgbaPlaneSource initialValue() {
+            return new RgbaPlaneSource();
+        }
+    };
+
+    // Set while tuning is due; the first detection starts the tuner thread
+    private volatile Context tuneContext;
+    private final AtomicBoolean tuneStarted = new AtomicBoolean();
+    private volatile long lastDetectionNanos;
+
+    private YOLOv5Classifier(Context context, ModelVariant requested, int poolSize) {
+        ModelVariant loaded = requested;
+        MappedByteBuffer model;
+        LabelMap labels;
+        Map<Integer, MappedByteBuffer> models = new TreeMap<>();
         try {
-            interpreter = new Interpreter(loadModelFile(context, "yolov5s-fp16.tflite"));
-            loadLabels(context, "labels.txt");
+            try {
+                model = loadModelFile(context, requested.assetName);
+            } catch (IOException e) {
+                if (requested == ModelVariant.FP16) throw e;
+                Log.w(TAG, requested + " model unavailable, falling back to FP16", e);
+                loaded = ModelVariant.FP16;
+                model = loadModelFile(context, loaded.assetName);
+            }
+            // Keyed by what each model declares, so the selector, the letterbox and the
+            // interpreter always agree on the size
+            models.put(inputSizeOf(model), model);
+            for (int size : InputSizeSelector.SUPPORTED_SIZES) {
+                String asset = loaded.assetName(size);
+                if (asset.equals(loaded.assetName) || models.containsKey(size)) continue;
+                MappedByteBuffer sized;
+                try {
+                    sized = loadModelFile(context, asset);
+                } catch (IOException e) {
+                    // This size is not shipped; the selector only sees the ones that are
+                    continue;
+                }
+                int actual = inputSizeOf(sized);
+                if (actual != size) Log.w(TAG, asset + " takes " + actual + " px input, not " + size);
+                models.putIfAbsent(actual, sized);
+            }
+            labels = loadLabels(context, "labels.txt");
         } catch (IOException e) {
             throw new RuntimeException("Failed to load YOLO model", e);
         }
+        this.models = models;
+        this.labels = labels;
+        variant = loaded;
+        for (int size : models.keySet()) options.put(size, getExecutionOptions(context, size));
+        this.poolSize = poolSize;
+        int[] available = new int[models.size()];
+        int i = 0;
+        for (int size : models.keySet()) available[i++] = size;
+        sizes = new InputSizeSelector(available);
+        inputSize = sizes.largest();
+        resolver = context.getContentResolver();
+        cache = new DetectionCache(CACHE_MEMORY_ENTRIES,
+                new File(context.getCacheDir(), "detections"), CACHE_DISK_ENTRIES);
+        pool = new InterpreterPool(size -> newEngine(options.get(size), size), poolSize);
+    }
+
+    private int checkSize(int size) {
+        if (!models.containsKey(size)) throw new IllegalArgumentException("No model for input size " + size);
+        return size;
     }
 
+    /** Blocks while the model loads on first use; prefer {@link #whenReady} on the main thread. */
     public static synchronized YOLOv5Classifier getInstance(Context context) {
-        if (instance == null)
-            instance = new YOLOv5Classifier(context.getApplicationContext());
+        if (instance == null) {
+            Context app = context.getApplicationContext();
+            instance = new YOLOv5Classifier(app, getModelVariant(app), getPoolSize(app));
+        }
         return instance;
     }
 
+    /**
+     * Starts loading the model, labels and first interpreter on a background thread and runs one
+     * dummy inference, so the first real photo does not pay for delegate setup. Safe to call more
+     * than once; every call returns the same future unless the previous warm-up failed.
+     */
+    public static synchronized CompletableFuture<YOLOv5Classifier> warmUp(Context context) {
+        if (ready == null || ready.isCompletedExceptionally()) {
+            Context app = context.getApplicationContext();
+            CompletableFuture<YOLOv5Classifier> future = new CompletableFuture<>();
+            ready = future;
+            AppExecutors.get().compute().execute(() -> {
+                try {
+                    long start = System.nanoTime();
+                    YOLOv5Classifier classifier = getInstance(app);
+                    classifier.pool.submit(classifier.inputSize, engine -> engine.run(classifier.greyFrame())).join();
+                    Log.i(TAG, "Warm-up finished in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                    future.complete(classifier);
+                    // Deferred to the first detection, so start-up work does not skew the timings
+                    if (!isTunedFor(app, classifier.variant)) classifier.tuneContext = app;
+                } catch (Throwable t) {
+                    Log.e(TAG, "Warm-up failed", t);
+                    future.completeExceptionally(t);
+                }
+            });
+        }
+        return ready;
+    }
+
+    /** Non-blocking access to the warmed-up classifier; starts the warm-up if nobody has yet. */
+    public static CompletableFuture<YOLOv5Classifier> whenReady(Context context) {
+        return warmUp(context);
+    }
+
+    private DetectionEngine newEngine(ExecutionOptions options, int inputSize) {
+        Interpreter interpreter = new Interpreter(models.get(inputSize), new Interpreter.Options()
+                .setNumThreads(options.numThreads)
+                .setUseXNNPACK(options.useXnnpack)
+                .setAllowFp16PrecisionForFp32(options.allowFp16));
+        return new DetectionEngine(new DetectionEngine.ModelRunner() {
+            @Override
+            public void run(Object input, Object output) {
+                interpreter.run(input, output);
+            }
+
+            @Override
+            public void close() {
+                interpreter.close();
+            }
+        }, inputSize, quantizationOf(interpreter));
+    }
+
+    /** Number of interpreters the next process start will allow to run in parallel. */
+    public static int getPoolSize(Context context) {
+        int fallback = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+        return Math.max(1, context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .getInt(PREF_POOL_SIZE, fallback));
+    }
+
+    /** Stores the pool size to use at startup; every interpreter costs roughly 20-40 MB. */
+    public static void setPoolSize(Context context, int size) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                .putInt(PREF_POOL_SIZE, Math.max(1, size)).apply();
+    }
+
+    /** Variant the next process start will load. */
+    public static ModelVariant getModelVariant(Context context) {
+        return ModelVariant.fromName(context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .getString(ModelVariant.PREF_KEY, null));
+    }
+
+    /** Stores the variant to load at startup; the running instance keeps its current model. */
+    public static void setModelVariant(Context context, ModelVariant variant) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                .putString(ModelVariant.PREF_KEY, variant.name()).apply();
+    }
+
+    /** Whether photos are detected tile by tile; finds small objects at several times the cost. */
+    public static boolean isTiledDetection(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).getBoolean(PREF_TILED, false);
+    }
+
+    public static void setTiledDetection(Context context, boolean enabled) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                .putBoolean(PREF_TILED, enabled).apply();
+    }
+
+    public ModelVariant getLoadedVariant() {
+        return variant;
+    }
+
+    /** Interpreter options the next process start will use for sizes that were not tuned. */
+    public static ExecutionOptions getExecutionOptions(Context context) {
+        return ExecutionOptions.decode(context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .getString(PREF_EXECUTION, null), ExecutionOptions.DEFAULT);
+    }
+
+    /** Options for the model of {@code inputSize}: its auto-tuned ones once available. */
+    public static ExecutionOptions getExecutionOptions(Context context, int inputSize) {
+        return ExecutionOptions.decode(context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .getString(PREF_EXECUTION + "_" + inputSize, null), getExecutionOptions(context));
+    }
+
+    /** Overrides the interpreter options of every size for the next start; this also counts as tuned. */
+    public static void setExecutionOptions(Context context, ExecutionOptions options) {
+        SharedPreferences.Editor editor = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                .putString(PREF_EXECUTION, options.encode())
+                .putString(PREF_TUNED_VARIANT, getModelVariant(context).name());
+        for (int size : InputSizeSelector.SUPPORTED_SIZES) editor.remove(PREF_EXECUTION + "_" + size);
+        editor.apply();
+    }
+
+    /** Options of the default, largest model. */
+    public ExecutionOptions getLoadedExecutionOptions() {
+        return options.get(inputSize);
+    }
+
+    private static boolean isTunedFor(Context context, ModelVariant variant) {
+        return variant.name().equals(context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .getString(PREF_TUNED_VARIANT, null));
+    }
+
+    /**
+     * Times every candidate configuration for every input size, once per model variant, and
+     * stores the fastest for later launches. Candidates run {@code poolSize} interpreters at once,
+     * as detection does. The tuner has a thread of its own at minimum priority, and each candidate
+     * waits until detection has been idle for a while, so real work neither waits for it nor
+     * skews its timings.
+     */
+    private void startTuner(Context context) {
+        Thread tuner = new Thread(() -> {
+            try {
+                SharedPreferences.Editor editor = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit();
+                for (int size : models.keySet()) {
+                    ExecutionOptions current = options.get(size);
+                    List<ExecutionOptions> candidates = ExecutionOptions.tuningCandidates(
+                            Runtime.getRuntime().availableProcessors(), current.allowFp16);
+                    ExecutionOptions best = ExecutionAutoTuner.tune(candidates, o -> newEngine(o, size),
+                            greyFrame(size), poolSize, this::awaitIdle);
+                    editor.putString(PREF_EXECUTION + "_" + size, best.encode());
+                    Log.i(TAG, "Auto-tuned " + variant + " at " + size + ": " + best);
+                }
+                editor.putString(PREF_TUNED_VARIANT, variant.name()).apply();
+            } catch (InterruptedException e) {
+                Log.w(TAG, "Auto-tuning interrupted");
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Auto-tuning failed", e);
+            }
+        }, "detector-tuner");
+        tuner.setDaemon(true);
+        tuner.setPriority(Thread.MIN_PRIORITY);
+        tuner.start();
+    }
+
+    /** Returns once no detection has run for {@link #TUNE_IDLE_NANOS}. */
+    private void awaitIdle() throws InterruptedException {
+        long idle;
+        while ((idle = System.nanoTime() - lastDetectionNanos) < TUNE_IDLE_NANOS) {
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(TUNE_IDLE_NANOS - idle) + 1);
+        }
+    }
+
+    /** Side of the square input tensor (NHWC) the model was exported with. */
+    private static int inputSizeOf(MappedByteBuffer model) {
+        Interpreter interpreter = new Interpreter(model);
+        try {
+            return interpreter.getInputTensor(0).shape()[1];
+        } finally {
+            interpreter.close();
+        }
+    }
+
+    /** Reads uint8 tensor parameters from the model itself, so any variant can be quantized. */
+    private static DetectionEngine.Quantization quantizationOf(Interpreter interpreter) {
+        Tensor in = interpreter.getInputTensor(0);
+        Tensor out = interpreter.getOutputTensor(0);
+        if (in.dataType() != DataType.UINT8) return null;
+        Tensor.QuantizationParams inQ = in.quantizationParams();
+        Tensor.QuantizationParams outQ = out.quantizationParams();
+        return new DetectionEngine.Quantization(inQ.getScale(), inQ.getZeroPoint(),
+                outQ.getScale(), outQ.getZeroPoint());
+    }
+
     private MappedByteBuffer loadModelFile(Context context, String modelName) throws IOException {
         AssetFileDescriptor fd = context.getAssets().openFd(modelName);
         try (FileInputStream is = new FileInputStream(fd.getFileDescriptor())) {
@@ -38,60 +334,276 @@ public final class YOLOv5Classifier {
         }
     }
 
-    private void loadLabels(Context context, String fileName) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(context.getAssets().open(fileName)))) {
-            String line;
-            while ((line = reader.readLine()) != null) labels.add(line);
+    private static LabelMap loadLabels(Context context, String fileName) throws IOException {
+        try (Reader reader = new InputStreamReader(context.getAssets().open(fileName))) {
+            return LabelMap.read(reader);
         }
     }
 
-    public List<Result> detect(Bitmap bitmap) {
-        Bitmap resized = Bitmap.createScaledBitmap(bitmap, inputSize, inputSize, true);
-        ByteBuffer input = preprocessBitmap(resized);
-        float[][][] output = new float[1][25200][85];
-        interpreter.run(input, output);
-        return postprocess(output);
+    /**
+     * Input size for a request: the smallest for {@code FAST}, the largest for {@code ACCURATE},
+     * otherwise the largest whose running latency estimate fits {@code budgetMillis}.
+     */
+    public int selectInputSize(InputSizeSelector.Quality quality, long budgetMillis) {
+        return sizes.select(quality, budgetMillis);
+    }
+
+    /**
+     * Detects objects on the calling thread and copies them into {@code out}, which the caller owns.
+     * Blocks while every interpreter is busy; returns an empty batch if interrupted while waiting.
+     */
+    public DetectionBatch detect(Bitmap bitmap, DetectionBatch out) {
+        return detect(bitmap, inputSize, out);
+    }
+
+    /** Same as {@link #detect(Bitmap, DetectionBatch)} with the model of the given input size. */
+    public DetectionBatch detect(Bitmap bitmap, int inputSize, DetectionBatch out) {
+        return detect(new BitmapPixelSource(readable(bitmap)), inputSize, out);
+    }
+
+    /**
+     * Detects on the calling thread straight from {@code source}, e.g. a camera frame, so no
+     * bitmap is needed. Boxes are in pixels of {@code source}.
+     */
+    DetectionBatch detect(PixelSource source, int inputSize, DetectionBatch out) {
+        DetectionEngine engine;
+        try {
+            engine = pool.acquire(checkSize(inputSize));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            out.clear();
+            return out;
+        }
+        try {
+            return run(engine, source, out);
+        } finally {
+            pool.release(engine);
+        }
     }
 
-    private ByteBuffer preprocessBitmap(Bitmap bitmap) {
-        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * inputSize * inputSize * 3).order(ByteOrder.nativeOrder());
-        int[] pixels = new int[inputSize * inputSize];
-        bitmap.getPixels(pixels, 0, inputSize, 0, 0, inputSize, inputSize);
-        for (int val : pixels) {
-            buffer.putFloat(((val >> 16) & 0xFF) / 255f);
-            buffer.putFloat(((val >> 8) & 0xFF) / 255f);
-            buffer.putFloat((val & 0xFF) / 255f);
+    /**
+     * Detects on a CameraX frame in YUV_420_888 (the ImageAnalysis default) or RGBA_8888 without
+     * creating a bitmap. Boxes are in pixels of the frame's crop rectangle turned upright by its
+     * rotation. The caller still owns and closes {@code image}.
+     */
+    public DetectionBatch detect(ImageProxy image, int inputSize, DetectionBatch out) {
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        int rotation = image.getImageInfo().getRotationDegrees();
+        PixelSource source;
+        if (image.getFormat() == ImageFormat.YUV_420_888) {
+            Rect crop = image.getCropRect();
+            source = yuvSources.get().set(planes[0].getBuffer(), planes[1].getBuffer(), planes[2].getBuffer(),
+                    planes[0].getRowStride(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                    crop.left, crop.top, crop.width(), crop.height(), rotation);
+        } else if (image.getFormat() == PixelFormat.RGBA_8888) {
+            source = rgbaSources.get().set(planes[0].getBuffer(), image.getWidth(), image.getHeight(),
+                    planes[0].getRowStride(), rotation);
+        } else {
+            throw new IllegalArgumentException("Unsupported image format " + image.getFormat());
         }
-        return buffer;
+        return detect(source, inputSize, out);
+    }
+
+    public DetectionBatch detect(Bitmap bitmap) {
+        return detect(bitmap, new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS));
+    }
+
+    /**
+     * Detects on one of the pool threads, so several images can be processed in parallel. The
+     * input size fits {@link #DEFAULT_BUDGET_MS}.
+     */
+    public CompletableFuture<DetectionBatch> detectAsync(Bitmap bitmap) {
+        return detectAsync(bitmap, selectInputSize(InputSizeSelector.Quality.BALANCED, DEFAULT_BUDGET_MS));
+    }
+
+    /** Same as {@link #detectAsync(Bitmap)} with the model of the given input size. */
+    public CompletableFuture<DetectionBatch> detectAsync(Bitmap bitmap, int inputSize) {
+        return pool.submit(checkSize(inputSize), engine ->
+                run(engine, bitmap, new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS)));
+    }
+
+    /**
+     * Decodes the bitmap on a pool thread, right before it is needed, and gives it back to the
+     * {@link BitmapPool} afterwards; used for tiles, so only as many are in memory as there are
+     * interpreters.
+     */
+    CompletableFuture<DetectionBatch> detectAsync(Supplier<Bitmap> decode, int inputSize) {
+        return pool.submit(checkSize(inputSize), engine -> {
+            long start = System.nanoTime();
+            Bitmap bitmap = decode.get();
+            PipelineMetrics.get().recordSince(PipelineMetrics.Stage.DECODE, start);
+            try {
+                return run(engine, bitmap, new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS));
+            } finally {
+                BitmapPool.get().put(bitmap);
+            }
+        });
     }
 
-    private List<Result> postprocess(float[][][] output) {
-        Result best = null;
-        float bestConf = 0;
-        for (float[] row : output[0]) {
-            if (row[4] < 0.4f) continue;
-            int classId = -1;
-            float maxProb = 0;
-            for (int c = 5; c < 85; c++) {
-                if (row[c] > maxProb) {
-                    maxProb = row[c];
-                    classId = c - 5;
+    /**
+     * Decodes an image held in memory, such as a camera capture, at the input size that fits
+     * {@link #DEFAULT_BUDGET_MS} and detects it turned {@code rotationDegrees} clockwise, without
+     * a rotated copy. Boxes are in upright pixels of the decoded image.
+     */
+    CompletableFuture<DetectionBatch> detectEncodedAsync(byte[] encoded, int rotationDegrees) {
+        int selected = selectInputSize(InputSizeSelector.Quality.BALANCED, DEFAULT_BUDGET_MS);
+        return AppExecutors.get().compute().supply(() -> {
+            long start = System.nanoTime();
+            Bitmap bitmap = ImageLoader.decodeForDetection(encoded, selected);
+            PipelineMetrics.get().recordSince(PipelineMetrics.Stage.DECODE, start);
+            return bitmap;
+        }).thenCompose(bitmap -> pool
+                .submit(selected, engine -> run(engine, new BitmapPixelSource(bitmap, rotationDegrees),
+                        new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS)))
+                .whenComplete((r, e) -> BitmapPool.get().put(bitmap)));
+    }
+
+    /**
+     * Like {@link #detectAsync(Bitmap)}, but results are cached by {@code source} (its URI, size
+     * and modification time) or, when the source cannot be identified, by the decoded pixels.
+     * Viewing the same image again then costs a lookup instead of an inference. A result from an
+     * input size at least as large as the selected one is good enough to reuse.
+     */
+    public CompletableFuture<DetectionBatch> detectAsync(Bitmap bitmap, Uri source) {
+        int selected = selectInputSize(InputSizeSelector.Quality.BALANCED, DEFAULT_BUDGET_MS);
+        // The lookup queries the provider and may read the disk; it must not hold an interpreter
+        // or wait behind queued inferences, so only a miss goes to the interpreter pool
+        return AppExecutors.get().io().supply(() -> {
+            String key = source != null ? sourceKeyOf(source, variant.name()) : null;
+            Bitmap pixels = bitmap;
+            if (key == null) {
+                pixels = readable(bitmap);
+                key = DetectionCache.pixelKey(new BitmapPixelSource(pixels), variant.name());
+            }
+            int[] available = sizes.sizes();
+            for (int i = available.length - 1; i >= 0 && available[i] >= selected; i--) {
+                DetectionBatch cached = cache.get(key + "@" + available[i]);
+                if (cached != null) {
+                    Log.d(TAG, "Cache hit " + cache);
+                    if (pixels != bitmap) BitmapPool.get().put(pixels);
+                    return new Lookup(key, null, cached);
                 }
             }
-            if (classId >= 0 && row[4] > bestConf) {
-                bestConf = row[4];
-                best = new Result(labels.get(classId), bestConf);
+            return new Lookup(key, pixels, null);
+        }).thenCompose(lookup -> lookup.hit != null
+                ? CompletableFuture.completedFuture(lookup.hit)
+                : pool.submit(selected, engine -> {
+                            // Copied at most once: readable() returns a copy it already made unchanged
+                            try {
+                                return run(engine, lookup.pixels,
+                                        new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS));
+                            } finally {
+                                // The caller gives back only its own bitmap, never the copy hashed here
+                                if (lookup.pixels != bitmap) BitmapPool.get().put(lookup.pixels);
+                            }
+                        })
+                        // Storing writes and trims the disk tier; the interpreter is free by then
+                        .thenApplyAsync(results -> {
+                            cache.put(lookup.key + "@" + selected, results);
+                            return results;
+                        }, AppExecutors.get().io()));
+    }
+
+    /** A cache key, the bitmap to detect on a miss, and the cached result on a hit. */
+    private static final class Lookup {
+        final String key;
+        final Bitmap pixels;
+        final DetectionBatch hit;
+
+        Lookup(String key, Bitmap pixels, DetectionBatch hit) {
+            this.key = key;
+            this.pixels = pixels;
+            this.hit = hit;
+        }
+    }
+
+    /** Cache key from the provider's size and last-modified columns; null if either is unknown. */
+    private String sourceKeyOf(Uri uri, String salt) {
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme()) && uri.getPath() != null) {
+            File file = new File(uri.getPath());
+            if (!file.isFile()) return null;
+            return DetectionCache.sourceKey(uri.toString(), file.length(), file.lastModified(), salt);
+        }
+        try (Cursor cursor = resolver.query(uri, null, null, null, null)) {
+            if (cursor == null || !cursor.moveToFirst()) return null;
+            int sizeColumn = cursor.getColumnIndex(OpenableColumns.SIZE);
+            if (sizeColumn < 0 || cursor.isNull(sizeColumn)) return null;
+            long modified;
+            int column = cursor.getColumnIndex(DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+            if (column >= 0 && !cursor.isNull(column)) {
+                modified = cursor.getLong(column);
+            } else {
+                column = cursor.getColumnIndex(MediaStore.MediaColumns.DATE_MODIFIED);
+                if (column < 0 || cursor.isNull(column)) return null;
+                modified = cursor.getLong(column) * 1000L;
             }
+            return DetectionCache.sourceKey(uri.toString(), cursor.getLong(sizeColumn), modified, salt);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot identify " + uri + ", hashing pixels instead", e);
+            return null;
+        }
+    }
+
+    private PixelSource greyFrame() {
+        return greyFrame(inputSize);
+    }
+
+    /** Input-sized padding-grey frame for warm-up and tuning runs. */
+    private static PixelSource greyFrame(int size) {
+        return new PixelSource() {
+            @Override public int width() { return size; }
+            @Override public int height() { return size; }
+            @Override public void readRow(int y, int[] dst) { Arrays.fill(dst, 0, size, 0xFF727272); }
+        };
+    }
+
+    /** Detects on a readable copy if {@code bitmap} is a hardware one, and releases the copy after. */
+    private DetectionBatch run(DetectionEngine engine, Bitmap bitmap, DetectionBatch out) {
+        Bitmap pixels = readable(bitmap);
+        try {
+            return run(engine, new BitmapPixelSource(pixels), out);
+        } finally {
+            if (pixels != bitmap) BitmapPool.get().put(pixels);
         }
-        return best == null ? Collections.emptyList() : Collections.singletonList(best);
     }
 
-    public static class Result {
-        public final String label;
-        public final float conf;
-        public Result(String label, float conf) {
-            this.label = label;
-            this.conf = conf;
+    /** Runs one detection and records its latency for the size selector and stage histograms. */
+    private DetectionBatch run(DetectionEngine engine, PixelSource source, DetectionBatch out) {
+        long start = System.nanoTime();
+        engine.run(source);
+        sizes.record(engine.inputSize(), (System.nanoTime() - start) / 1e6);
+        PipelineMetrics metrics = PipelineMetrics.get();
+        metrics.record(PipelineMetrics.Stage.PREPROCESS, engine.preprocessNanos());
+        metrics.record(PipelineMetrics.Stage.INFERENCE, engine.inferenceNanos());
+        metrics.record(PipelineMetrics.Stage.POSTPROCESS, engine.postprocessNanos());
+        engine.batch().copyTo(out);
+        lastDetectionNanos = System.nanoTime();
+        Context context = tuneContext;
+        if (context != null && tuneStarted.compareAndSet(false, true)) startTuner(context);
+        return out;
+    }
+
+    /** Hardware bitmaps (the ImageDecoder default) cannot be read with getPixels. */
+    private static Bitmap readable(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && bitmap.getConfig() == Bitmap.Config.HARDWARE) {
+            long start = System.nanoTime();
+            Bitmap copy = bitmap.copy(Bitmap.Config.ARGB_8888, false);
+            PipelineMetrics.get().recordSince(PipelineMetrics.Stage.COPY, start);
+            return copy;
         }
+        return bitmap;
+    }
+
+    public int getParallelism() {
+        return pool.maxSize();
+    }
+
+    public String getLabel(int classId) {
+        return labels.get(classId);
+    }
+
+    /** Distinct labels of {@code results}, best first. */
+    public Set<String> labelsOf(DetectionBatch results) {
+        return labels.distinct(results);
     }
 }
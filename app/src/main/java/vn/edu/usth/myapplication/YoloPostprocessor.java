@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: YoloPostprocessor.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+/**
+ * Turns raw YOLOv5 rows ({@code cx, cy, w, h, objectness, 80 class scores}, coordinates
+ * normalised to the model input) into a {@link DetectionBatch}.
+ * <p>
+ * A first pass over the flat output only gathers the indices of rows whose objectness passes;
+ * the class argmax runs on those alone. Confidence is objectness x best class score. The best
+ * {@code topK} candidates are kept in a min-heap, then greedy per-class NMS keeps at most {@code maxDetections}.
+ * All scratch is preallocated, so {@link #process} does not allocate.
+ */
+final class YoloPostprocessor {
+
+    static final float DEFAULT_CONF_THRESHOLD = 0.25f;
+    static final float DEFAULT_IOU_THRESHOLD = 0.45f;
+    static final int DEFAULT_TOP_K = 300;
+    static final int DEFAULT_MAX_DETECTIONS = 20;
+
+    private final int topK;
+    private final int maxDetections;
+    private float confThreshold = DEFAULT_CONF_THRESHOLD;
+    private float iouThreshold = DEFAULT_IOU_THRESHOLD;
+
+    // Candidate slots, indexed by slot id
+    private final float[] candBoxes;
+    private final float[] candScores;
+    private final int[] candClasses;
+    // Min-heap of slot ids keyed by score, then reused as the descending order
+    private final int[] heap;
+    private final boolean[] suppressed;
+    private int heapSize;
+    // Row indices that passed the objectness test
+    private int[] passing = new int[0];
+
+    YoloPostprocessor() {
+        this(DEFAULT_TOP_K, DEFAULT_MAX_DETECTIONS);
+    }
+
+    YoloPostprocessor(int topK, int maxDetections) {
+        this.topK = topK;
+        this.maxDetections = maxDetections;
+        candBoxes = new float[topK * 4];
+        candScores = new float[topK];
+        candClasses = new int[topK];
+        heap = new int[topK];
+        suppressed = new boolean[topK];
+    }
+
+    int maxDetections() {
+        return maxDetections;
+    }
+
+    void setConfThreshold(float confThreshold) {
+        this.confThreshold = confThreshold;
+    }
+
+    void setIouThreshold(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+    }
+
+    /**
+     * Scans a flat float output of {@code numRows} rows of {@code stride} floats and writes the
+     * surviving boxes, mapped back to the source image through {@code letterbox}, into {@code out}.
+     * Returns the number of detections.
+     */
+    int process(float[] rows, int numRows, int stride, Letterbox letterbox, DetectionBatch out) {
+        float size = letterbox.inputSize();
+        int[] idx = passing(numRows);
+        // Branch-free gather of the rows whose objectness passes; most of the 25k rows stop here
+        float threshold = confThreshold;
+        int n = 0;
+        for (int r = 0, o = 4; r < numRows; r++, o += stride) {
+            idx[n] = r;
+            n += rows[o] >= threshold ? 1 : 0;
+        }
+        heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            int base = idx[i] * stride;
+            int classId = 0;
+            float maxProb = rows[base + 5];
+            for (int c = base + 6, end = base + stride; c < end; c++) {
+                if (rows[c] > maxProb) {
+                    maxProb = rows[c];
+                    classId = c - base - 5;
+                }
+            }
+            consider(rows[base], rows[base + 1], rows[base + 2], rows[base + 3],
+                    rows[base + 4] * maxProb, classId, size, letterbox);
+        }
+        return suppress(out);
+    }
+
+    /**
+     * Same as {@link #process(float[], int, int, Letterbox, DetectionBatch)} for a quantized uint8
+     * output. The objectness test runs on the raw bytes; only rows that pass it are dequantized.
+     */
+    int processQuantized(byte[] raw, int numRows, int stride, float scale, int zeroPoint,
+                         Letterbox letterbox, DetectionBatch out) {
+        float size = letterbox.inputSize();
+        int[] idx = passing(numRows);
+        int objMin = Math.max(0, (int) Math.ceil(confThreshold / scale + zeroPoint));
+        int n = 0;
+        for (int r = 0, o = 4; r < numRows; r++, o += stride) {
+            idx[n] = r;
+            n += (raw[o] & 0xFF) >= objMin ? 1 : 0;
+        }
+        heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            int base = idx[i] * stride;
+            int classId = 0;
+            int maxQ = raw[base + 5] & 0xFF;
+            for (int c = base + 6, end = base + stride; c < end; c++) {
+                int q = raw[c] & 0xFF;
+                if (q > maxQ) {
+                    maxQ = q;
+                    classId = c - base - 5;
+                }
+            }
+            float score = ((raw[base + 4] & 0xFF) - zeroPoint) * scale * ((maxQ - zeroPoint) * scale);
+            consider(((raw[base] & 0xFF) - zeroPoint) * scale, ((raw[base + 1] & 0xFF) - zeroPoint) * scale,
+                    ((raw[base + 2] & 0xFF) - zeroPoint) * scale, ((raw[base + 3] & 0xFF) - zeroPoint) * scale,
+                    score, classId, size, letterbox);
+        }
+        return suppress(out);
+    }
+
+    /** Index scratch for the objectness pass; sized once for the model's row count. */
+    private int[] passing(int numRows) {
+        if (passing.length < numRows) passing = new int[numRows];
+        return passing;
+    }
+
+    /** Offers one normalised {@code cx, cy, w, h} box if its score can still make the top K. */
+    private void consider(float cx, float cy, float w, float h, float score, int classId,
+                          float size, Letterbox letterbox) {
+        if (score < confThreshold) return;
+        if (heapSize == topK && score <= candScores[heap[0]]) return;
+        cx *= size;
+        cy *= size;
+        float hw = w * size / 2f, hh = h * size / 2f;
+        offer(letterbox.toSourceX(cx - hw), letterbox.toSourceY(cy - hh),
+                letterbox.toSourceX(cx + hw), letterbox.toSourceY(cy + hh), score, classId);
+    }
+
+    /** Adds a candidate box to the top-K heap. */
+    private void offer(float left, float top, float right, float bottom, float score, int classId) {
+        int slot;
+        if (heapSize < topK) {
+            slot = heapSize;
+            heap[heapSize++] = slot;
+            write(slot, left, top, right, bottom, score, classId);
+            siftUp(heapSize - 1);
+        } else {
+            slot = heap[0];
+            write(slot, left, top, right, bottom, score, classId);
+            siftDown(0, heapSize);
+        }
+    }
+
+    private void write(int slot, float left, float top, float right, float bottom, float score, int classId) {
+        int b = slot * 4;
+        candBoxes[b] = left;
+        candBoxes[b + 1] = top;
+        candBoxes[b + 2] = right;
+        candBoxes[b + 3] = bottom;
+        candScores[slot] = score;
+        candClasses[slot] = classId;
+    }
+
+    /** Heap-sorts the candidates by descending score, then runs greedy per-class NMS into {@code out}. */
+    private int suppress(DetectionBatch out) {
+        out.clear();
+        int n = heapSize;
+        for (int end = n - 1; end > 0; end--) {
+            int tmp = heap[0];
+            heap[0] = heap[end];
+            heap[end] = tmp;
+            siftDown(0, end);
+        }
+        // Popping the minimum to the back leaves heap[] sorted by descending score
+        for (int i = 0; i < n; i++) suppressed[i] = false;
+        for (int i = 0; i < n && out.size() < maxDetections; i++) {
+            if (suppressed[i]) continue;
+            int a = heap[i];
+            int ab = a * 4;
+            out.add(candBoxes[ab], candBoxes[ab + 1], candBoxes[ab + 2], candBoxes[ab + 3],
+                    candScores[a], candClasses[a]);
+            for (int j = i + 1; j < n; j++) {
+                if (suppressed[j]) continue;
+                int b = heap[j];
+                if (candClasses[b] == candClasses[a] && iou(candBoxes, ab, candBoxes, b * 4) > iouThreshold) {
+                    suppressed[j] = true;
+                }
+            }
+        }
+        heapSize = 0;
+        return out.size();
+    }
+
+    private void siftUp(int i) {
+        int slot = heap[i];
+        float score = candScores[slot];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (candScores[heap[parent]] <= score) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = slot;
+    }
+
+    private void siftDown(int i, int size) {
+        int slot = heap[i];
+        float score = candScores[slot];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && candScores[heap[child + 1]] < candScores[heap[child]]) child++;
+            if (candScores[heap[child]] >= score) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = slot;
+    }
+
+    static float iou(float[] a, int ai, float[] b, int bi) {
+        float iw = Math.min(a[ai + 2], b[bi + 2]) - Math.max(a[ai], b[bi]);
+        float ih = Math.min(a[ai + 3], b[bi + 3]) - Math.max(a[ai + 1], b[bi + 1]);
+        if (iw <= 0 || ih <= 0) return 0f;
+        float inter = iw * ih;
+        float areaA = (a[ai + 2] - a[ai]) * (a[ai + 3] - a[ai + 1]);
+        float areaB = (b[bi + 2] - b[bi]) * (b[bi + 3] - b[bi + 1]);
+        return inter / (areaA + areaB - inter);
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: YuvPlaneSource.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link PixelSource} over the three planes of a YUV_420_888 camera frame. Colour conversion,
+ * crop and rotation all happen while a row is read, and the preprocessor scales those rows
+ * straight into the input tensor, so a frame reaches the model without any bitmap or ARGB
+ * frame in between.
+ * <p>
+ * The planes are bulk-copied into arrays that are reused as long as the analysis resolution
+ * does not grow. Colours use the full-range BT.601 matrix of camera YUV output.
+ */
+final class YuvPlaneSource implements PixelSource {
+
+    // BT.601 full-range coefficients in 16.16 fixed point
+    private static final int RV = 91881;
+    private static final int GU = 22554;
+    private static final int GV = 46802;
+    private static final int BU = 116130;
+
+    private byte[] y = new byte[0];
+    private byte[] u = new byte[0];
+    private byte[] v = new byte[0];
+    private int yRowStride;
+    private int uvRowStride;
+    private int uvPixelStride;
+    private int cropLeft;
+    private int cropTop;
+    private int cropWidth;
+    private int cropHeight;
+    private int rotation;
+
+    /**
+     * Points the source at a frame. The crop rectangle is in buffer pixels and
+     * {@code rotationDegrees} is how far the buffer must turn clockwise to be upright.
+     */
+    YuvPlaneSource set(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                       int yRowStride, int uvRowStride, int uvPixelStride,
+                       int cropLeft, int cropTop, int cropWidth, int cropHeight, int rotationDegrees) {
+        y = copy(yPlane, y);
+        u = copy(uPlane, u);
+        v = copy(vPlane, v);
+        this.yRowStride = yRowStride;
+        this.uvRowStride = uvRowStride;
+        this.uvPixelStride = uvPixelStride;
+        this.cropLeft = cropLeft;
+        this.cropTop = cropTop;
+        this.cropWidth = cropWidth;
+        this.cropHeight = cropHeight;
+        rotation = ((rotationDegrees % 360) + 360) % 360;
+        return this;
+    }
+
+    private static byte[] copy(ByteBuffer plane, byte[] reuse) {
+        int n = plane.remaining();
+        byte[] dst = reuse.length >= n ? reuse : new byte[n];
+        plane.duplicate().get(dst, 0, n);
+        return dst;
+    }
+
+    @Override
+    public int width() {
+        return rotation == 90 || rotation == 270 ? cropHeight : cropWidth;
+    }
+
+    @Override
+    public int height() {
+        return rotation == 90 || rotation == 270 ? cropWidth : cropHeight;
+    }
+
+    @Override
+    public void readRow(int row, int[] dst) {
+        // Buffer position of the row's first pixel and the step to the next one
+        int sx, sy, dx = 0, dy = 0;
+        switch (rotation) {
+            case 90:
+                sx = row;
+                sy = cropHeight - 1;
+                dy = -1;
+                break;
+            case 180:
+                sx = cropWidth - 1;
+                sy = cropHeight - 1 - row;
+                dx = -1;
+                break;
+            case 270:
+                sx = cropWidth - 1 - row;
+                sy = 0;
+                dy = 1;
+                break;
+            default:
+                sx = 0;
+                sy = row;
+                dx = 1;
+                break;
+        }
+        sx += cropLeft;
+        sy += cropTop;
+        byte[] y = this.y, u = this.u, v = this.v;
+        int w = width();
+        for (int x = 0; x < w; x++, sx += dx, sy += dy) {
+            int luma = ((y[sy * yRowStride + sx] & 0xFF) << 16) + 0x8000;
+            int c = (sy >> 1) * uvRowStride + (sx >> 1) * uvPixelStride;
+            int cb = (u[c] & 0xFF) - 128;
+            int cr = (v[c] & 0xFF) - 128;
+            int r = (luma + RV * cr) >> 16;
+            int g = (luma - GU * cb - GV * cr) >> 16;
+            int b = (luma + BU * cb) >> 16;
+            r = r < 0 ? 0 : r > 255 ? 255 : r;
+            g = g < 0 ? 0 : g > 255 ? 255 : g;
+            b = b < 0 ? 0 : b > 255 ? 255 : b;
+            dst[x] = 0xFF000000 | r << 16 | g << 8 | b;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: AppExecutorsTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AppExecutorsTest {
+
+    private final AppExecutors executors = new AppExecutors(1, 2, 1);
+
+    @After
+    public void tearDown() {
+        executors.shutdown();
+    }
+
+    @Test
+    public void supply_cancelledBeforeStart_isSkipped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+        // Occupies the only compute thread
+        CompletableFuture<Void> blocker = executors.compute().run(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Integer> queued = executors.compute().supply(() -> {
+            ran.set(true);
+            return 1;
+        });
+        assertEquals(1, executors.compute().queueDepth());
+
+        queued.cancel(false);
+        release.countDown();
+        blocker.get(1, TimeUnit.SECONDS);
+        executors.compute().run(() -> { }).get(1, TimeUnit.SECONDS);
+
+        assertFalse(ran.get());
+        assertTrue(queued.isCancelled());
+    }
+
+    @Test
+    public void supply_failure_completesExceptionally() throws Exception {
+        CompletableFuture<Object> future = executors.io().supply(() -> {
+            throw new IllegalStateException("boom");
+        });
+        try {
+            future.get(1, TimeUnit.SECONDS);
+        } catch (java.util.concurrent.ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            return;
+        }
+        throw new AssertionError("expected failure");
+    }
+
+    @Test
+    public void serial_keepsSubmissionOrderOnAWiderPool() throws Exception {
+        Executor serial = executors.io().serial();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            serial.execute(() -> {
+                order.add(n);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) assertEquals(i, (int) order.get(i));
+    }
+
+    @Test
+    public void pool_recordsWaitAndRunTimes() throws Exception {
+        for (int i = 0; i < 5; i++) executors.network().run(() -> { }).get(1, TimeUnit.SECONDS);
+        // The histograms are written just after the task completes its future
+        executors.network().run(() -> { }).get(1, TimeUnit.SECONDS);
+
+        assertTrue(executors.network().runs().count() >= 5);
+        assertTrue(executors.network().waits().count() >= 6);
+        assertEquals(0, executors.network().queueDepth());
+        assertTrue(executors.summary().contains("network"));
+    }
+
+    @Test
+    public void asExecutorService_cannotShutDownThePool() throws Exception {
+        executors.io().asExecutorService().shutdownNow();
+        assertEquals(Integer.valueOf(7), executors.io().supply(() -> 7).get(1, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
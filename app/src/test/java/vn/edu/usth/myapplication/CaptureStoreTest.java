@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: CaptureStoreTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CaptureStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private File dir;
+    private CaptureStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = temp.newFolder("cache");
+        store = new CaptureStore(dir, 2500, queued::add);
+    }
+
+    /** Writes a 1000-byte capture last used {@code age} seconds ago. */
+    private File capture(String name, int age) throws Exception {
+        File file = new File(dir, CaptureStore.PREFIX + name + CaptureStore.SUFFIX);
+        Files.write(file.toPath(), new byte[1000]);
+        assertTrue(file.setLastModified(System.currentTimeMillis() - age * 1000L));
+        return file;
+    }
+
+    private void runQueued() {
+        while (!queued.isEmpty()) queued.poll().run();
+    }
+
+    @Test
+    public void newFile_namesAreUniqueAndRecognized() {
+        File first = store.newFile(), second = store.newFile();
+
+        assertNotEquals(first, second);
+        assertFalse(first.exists());
+        assertEquals(first, store.fileOf(first.toURI().toString()));
+    }
+
+    @Test
+    public void fileOf_rejectsOtherFiles() throws Exception {
+        assertNull(store.fileOf(null));
+        assertNull(store.fileOf("content://media/external/images/1"));
+        assertNull(store.fileOf(new File(dir, "detections.bin").toURI().toString()));
+        File elsewhere = new File(temp.newFolder("other"), CaptureStore.PREFIX + "1" + CaptureStore.SUFFIX);
+        assertNull(store.fileOf(elsewhere.toURI().toString()));
+    }
+
+    @Test
+    public void sweep_deletesLeastRecentlyUsedUntilUnderBudget() throws Exception {
+        File oldest = capture("a", 40), old = capture("b", 30), recent = capture("c", 20), newest = capture("d", 10);
+        Files.write(new File(dir, "unrelated.bin").toPath(), new byte[5000]);
+
+        assertEquals(2, store.sweep());
+
+        assertFalse(oldest.exists());
+        assertFalse(old.exists());
+        assertTrue(recent.exists());
+        assertTrue(newest.exists());
+        assertTrue(new File(dir, "unrelated.bin").exists());
+        assertEquals(2000, store.bytes());
+    }
+
+    @Test
+    public void sweep_keepsReferencedCapturesUntilReleased() throws Exception {
+        File shown = capture("a", 40);
+        capture("b", 30);
+        capture("c", 20);
+        capture("d", 10);
+        store.acquire(shown);
+
+        store.sweep();
+        assertTrue(shown.exists());
+
+        store.release(shown);
+        runQueued();
+        // Releasing counts as a use, so the next oldest went instead
+        assertTrue(shown.exists());
+        assertTrue(store.bytes() <= 2500);
+    }
+
+    @Test
+    public void acquire_isCounted() throws Exception {
+        CaptureStore empty = new CaptureStore(dir, 0, Runnable::run);
+        File shown = capture("a", 40), other = capture("b", 30);
+        empty.acquire(shown);
+        empty.acquire(shown);
+
+        empty.release(shown);
+        assertTrue(shown.exists());
+        assertFalse(other.exists());
+
+        empty.release(shown);
+        assertFalse(shown.exists());
+    }
+
+    @Test
+    public void added_sweepsOnTheSweeperOnly() throws Exception {
+        capture("a", 40);
+        capture("b", 30);
+        File newest = capture("c", 0);
+
+        store.added(newest);
+        store.added(newest);
+        assertEquals(3000, store.bytes());
+        assertEquals(1, queued.size());
+
+        runQueued();
+        assertEquals(2000, store.bytes());
+        assertTrue(newest.exists());
+    }
+
+    @Test
+    public void sweepAsync_neverRunsTwoSweepsAtOnce() throws Exception {
+        for (int i = 0; i < 20; i++) capture("f" + i, 20 - i);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CaptureStore concurrent = new CaptureStore(dir, 2500, task -> {
+            submitted.incrementAndGet();
+            pool.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    task.run();
+                } finally {
+                    running.decrementAndGet();
+                    completed.incrementAndGet();
+                }
+            });
+        });
+        try {
+            for (int i = 0; i < 200; i++) concurrent.sweepAsync();
+            // A sweep queues its follow-up before it completes, so equal counts mean no more will come
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (completed.get() != submitted.get() && System.nanoTime() < deadline) Thread.sleep(1);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(submitted.get(), completed.get());
+        assertEquals(1, maxRunning.get());
+        assertTrue(concurrent.bytes() <= 2500);
+    }
+}
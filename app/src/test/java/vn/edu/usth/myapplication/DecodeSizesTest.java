@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DecodeSizesTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DecodeSizesTest {
+
+    @Test
+    public void sampleSize_keepsLongSideAtLeastTarget() {
+        // 12 MP: 4000 / 4 = 1000 >= 640, 4000 / 8 = 500 < 640
+        assertEquals(4, DecodeSizes.sampleSize(4000, 3000, 640));
+        assertEquals(4, DecodeSizes.sampleSize(3000, 4000, 640));
+        assertEquals(1, DecodeSizes.sampleSize(640, 480, 640));
+        assertEquals(1, DecodeSizes.sampleSize(300, 200, 640));
+    }
+
+    @Test
+    public void fitLongSide_scalesDownOnly() {
+        assertArrayEquals(new int[]{640, 480}, DecodeSizes.fitLongSide(4000, 3000, 640));
+        assertArrayEquals(new int[]{360, 640}, DecodeSizes.fitLongSide(2250, 4000, 640));
+        assertArrayEquals(new int[]{300, 200}, DecodeSizes.fitLongSide(300, 200, 640));
+    }
+
+    @Test
+    public void fitWithin_screen() {
+        // Landscape photo on a portrait 1080x2400 screen is limited by the width
+        assertArrayEquals(new int[]{1080, 810}, DecodeSizes.fitWithin(4000, 3000, 1080, 2400));
+        assertArrayEquals(new int[]{1080, 1440}, DecodeSizes.fitWithin(3000, 4000, 1080, 2400));
+    }
+
+    @Test
+    public void sampleSizeWithin_staysAtLeastTheFittedSize() {
+        // Fitted 1080x810; 4000 / 2 = 2000 covers it, 4000 / 4 = 1000 does not
+        assertEquals(2, DecodeSizes.sampleSizeWithin(4000, 3000, 1080, 2400));
+        assertEquals(1, DecodeSizes.sampleSizeWithin(1000, 800, 1080, 2400));
+    }
+}
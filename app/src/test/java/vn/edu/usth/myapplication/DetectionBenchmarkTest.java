@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DetectionBenchmarkTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Throughput and allocation of the pure-Java detection stages on synthetic inputs, checked
+ * against {@code benchmark-baseline.properties}. A benchmark fails when it runs slower than
+ * {@code (1 - tolerance)} of its baseline or allocates more per op than its baseline allows.
+ * <p>
+ * The tolerance defaults to 0.5 and can be set with {@code -Pbenchmark.tolerance=...}. Every
+ * run writes its numbers to {@code build/benchmark-results.properties}, in the baseline format.
+ */
+public class DetectionBenchmarkTest {
+
+    private static final String BASELINE = "/benchmark-baseline.properties";
+    private static final File RESULTS = new File("build", "benchmark-results.properties");
+    // A few bytes of slack so that a zero-allocation baseline survives rounding
+    private static final double ALLOC_SLACK = 8;
+
+    private static final Properties baseline = new Properties();
+    private static final Map<String, Microbenchmark.Result> results = new TreeMap<>();
+    private static double tolerance;
+
+    /** Synthetic 12 MP photo; rows are a cheap hashed pattern so reading them costs little. */
+    private static final PixelSource PHOTO = new PixelSource() {
+        @Override public int width() { return 4000; }
+        @Override public int height() { return 3000; }
+        @Override public void readRow(int y, int[] dst) {
+            for (int x = 0; x < 4000; x++) dst[x] = 0xFF000000 | ((x + y) * 0x9E3779B1 >>> 8);
+        }
+    };
+
+    @BeforeClass
+    public static void loadBaseline() throws IOException {
+        try (InputStream in = DetectionBenchmarkTest.class.getResourceAsStream(BASELINE)) {
+            assertNotNull("missing " + BASELINE, in);
+            baseline.load(in);
+        }
+        tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.5"));
+    }
+
+    @AfterClass
+    public static void writeResults() throws IOException {
+        Properties out = new Properties();
+        for (Microbenchmark.Result r : results.values()) {
+            out.setProperty(r.name + ".ops", String.valueOf(Math.round(r.opsPerSecond)));
+            out.setProperty(r.name + ".alloc", String.valueOf(Math.round(r.bytesPerOp)));
+        }
+        File dir = RESULTS.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+        try (OutputStream os = new FileOutputStream(RESULTS)) {
+            out.store(os, "ops/s and allocated bytes/op per benchmark");
+        }
+    }
+
+    @Test
+    public void preprocessFloat() {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(640);
+        FloatBuffer tensor = ByteBuffer.allocateDirect(4 * 640 * 640 * 3)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        Letterbox letterbox = new Letterbox();
+        check(Microbenchmark.measure("preprocess.float", () -> preprocessor.process(PHOTO, tensor, letterbox)));
+    }
+
+    @Test
+    public void preprocessQuantized() {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(640);
+        ByteBuffer tensor = ByteBuffer.allocateDirect(640 * 640 * 3).order(ByteOrder.nativeOrder());
+        byte[] lut = ImagePreprocessor.quantizationTable(1 / 255f, 0);
+        Letterbox letterbox = new Letterbox();
+        check(Microbenchmark.measure("preprocess.uint8",
+                () -> preprocessor.process(PHOTO, tensor, lut, letterbox)));
+    }
+
+    /** A typical photo: a handful of rows pass objectness, so the scan dominates. */
+    @Test
+    public void postprocessScan() {
+        float[] rows = output(new Random(1), 12, 0.9f);
+        YoloPostprocessor postprocessor = new YoloPostprocessor();
+        Letterbox letterbox = new Letterbox().fit(4000, 3000, 640);
+        DetectionBatch out = new DetectionBatch(postprocessor.maxDetections());
+        check(Microbenchmark.measure("postprocess.scan", () -> postprocessor.process(
+                rows, DetectionEngine.NUM_ROWS, DetectionEngine.ROW_SIZE, letterbox, out)));
+    }
+
+    /** A crowded scene: hundreds of overlapping candidates fill the top-K heap and NMS. */
+    @Test
+    public void postprocessNms() {
+        float[] rows = output(new Random(2), 600, 0.25f);
+        YoloPostprocessor postprocessor = new YoloPostprocessor();
+        Letterbox letterbox = new Letterbox().fit(4000, 3000, 640);
+        DetectionBatch out = new DetectionBatch(postprocessor.maxDetections());
+        Microbenchmark.Result result = Microbenchmark.measure("postprocess.nms", () -> postprocessor.process(
+                rows, DetectionEngine.NUM_ROWS, DetectionEngine.ROW_SIZE, letterbox, out));
+        check(result);
+        // Whatever the machine, hundreds of candidates must stay well under 1 ms
+        assertTrue("postprocess.nms took " + 1e6 / result.opsPerSecond + " us", result.opsPerSecond >= 1000);
+    }
+
+    /**
+     * The flat pass (gather, argmax, top-K and NMS) against only the objectness and argmax loop
+     * over the same output as 25,200 separate row arrays, the way the interpreter used to fill it.
+     * The reference is recorded in the results but has no baseline of its own.
+     */
+    @Test
+    public void postprocessAgainstNestedRows() {
+        float[] flat = output(new Random(2), 600, 0.25f);
+        int stride = DetectionEngine.ROW_SIZE;
+        float[][] nested = new float[DetectionEngine.NUM_ROWS][stride];
+        for (int r = 0; r < nested.length; r++) System.arraycopy(flat, r * stride, nested[r], 0, stride);
+        YoloPostprocessor postprocessor = new YoloPostprocessor();
+        Letterbox letterbox = new Letterbox().fit(4000, 3000, 640);
+        DetectionBatch out = new DetectionBatch(postprocessor.maxDetections());
+        float[] sink = new float[1];
+
+        Microbenchmark.Result reference = Microbenchmark.measure("postprocess.nested-reference",
+                () -> sink[0] += nestedScan(nested, YoloPostprocessor.DEFAULT_CONF_THRESHOLD));
+        results.put(reference.name, reference);
+        System.out.println(reference);
+        Microbenchmark.Result result = Microbenchmark.measure("postprocess.nms", () -> postprocessor.process(
+                flat, DetectionEngine.NUM_ROWS, stride, letterbox, out));
+
+        assertTrue("reference scan found nothing", sink[0] > 0);
+        assertTrue(String.format("flat %.1f ops/s vs nested %.1f ops/s", result.opsPerSecond, reference.opsPerSecond),
+                result.opsPerSecond * 1.5 > reference.opsPerSecond);
+    }
+
+    @Test
+    public void labelMapping() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 80; i++) names.add("label" + i);
+        LabelMap labels = new LabelMap(names);
+        DetectionBatch batch = new DetectionBatch(YoloPostprocessor.DEFAULT_MAX_DETECTIONS);
+        Random random = new Random(3);
+        for (int i = 0; i < batch.capacity(); i++) batch.add(0, 0, 1, 1, 1f - i / 100f, random.nextInt(8));
+        check(Microbenchmark.measure("labels.distinct", () -> labels.distinct(batch)));
+    }
+
+    /**
+     * A full-size flat output with {@code candidates} random rows passing objectness; boxes are
+     * {@code spread} wide around the centre, so a small spread means heavy overlap.
+     */
+    private static float[] output(Random random, int candidates, float spread) {
+        int stride = DetectionEngine.ROW_SIZE;
+        float[] rows = new float[DetectionEngine.NUM_ROWS * stride];
+        for (int i = 0; i < candidates; i++) {
+            int base = random.nextInt(DetectionEngine.NUM_ROWS) * stride;
+            rows[base] = 0.5f + (random.nextFloat() - 0.5f) * spread;
+            rows[base + 1] = 0.5f + (random.nextFloat() - 0.5f) * spread;
+            rows[base + 2] = 0.1f + random.nextFloat() * 0.2f;
+            rows[base + 3] = 0.1f + random.nextFloat() * 0.2f;
+            rows[base + 4] = 0.4f + random.nextFloat() * 0.6f;
+            rows[base + 5 + random.nextInt(4)] = 0.6f + random.nextFloat() * 0.4f;
+        }
+        return rows;
+    }
+
+    /** Objectness test and class argmax over per-row arrays; returns the sum of the scores. */
+    private static float nestedScan(float[][] rows, float confThreshold) {
+        float sum = 0;
+        for (float[] row : rows) {
+            float obj = row[4];
+            if (obj < confThreshold) continue;
+            float maxProb = row[5];
+            for (int c = 6; c < row.length; c++) {
+                if (row[c] > maxProb) maxProb = row[c];
+            }
+            sum += obj * maxProb;
+        }
+        return sum;
+    }
+
+    private static void check(Microbenchmark.Result result) {
+        results.put(result.name, result);
+        System.out.println(result);
+        String ops = baseline.getProperty(result.name + ".ops");
+        String alloc = baseline.getProperty(result.name + ".alloc");
+        assertNotNull("no baseline for " + result.name, ops);
+        assertNotNull("no baseline for " + result.name, alloc);
+
+        double minOps = Double.parseDouble(ops) * (1 - tolerance);
+        assertTrue(String.format("%s regressed: %.1f ops/s, baseline %s", result.name, result.opsPerSecond, ops),
+                result.opsPerSecond >= minOps);
+        double maxBytes = Double.parseDouble(alloc) * (1 + tolerance) + ALLOC_SLACK;
+        assertTrue(String.format("%s allocates %.1f B/op, baseline %s", result.name, result.bytesPerOp, alloc),
+                result.bytesPerOp <= maxBytes);
+    }
+}
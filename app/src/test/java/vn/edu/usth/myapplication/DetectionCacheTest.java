@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DetectionCacheTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+public class DetectionCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static DetectionBatch batch(int classId) {
+        DetectionBatch batch = new DetectionBatch(4);
+        batch.add(10, 20, 110, 220, 0.9f, classId);
+        batch.add(5, 5, 50, 50, 0.4f, classId + 1);
+        return batch;
+    }
+
+    private static PixelSource image(int seed) {
+        return new PixelSource() {
+            @Override public int width() { return 40; }
+            @Override public int height() { return 30; }
+            @Override public void readRow(int y, int[] dst) {
+                for (int x = 0; x < 40; x++) dst[x] = 0xFF000000 | (x * 31 + y * 17 + seed);
+            }
+        };
+    }
+
+    @Test
+    public void get_returnsCopyOfStoredResults() {
+        DetectionCache cache = new DetectionCache(4, null, 0);
+        assertNull(cache.get("a"));
+        DetectionBatch stored = batch(3);
+        cache.put("a", stored);
+        stored.clear();
+
+        DetectionBatch hit = cache.get("a");
+        assertNotNull(hit);
+        assertEquals(2, hit.size());
+        assertEquals(3, hit.classIds[0]);
+        assertEquals(220f, hit.boxes[3], 0f);
+        assertEquals(1, cache.memoryHits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void memoryTier_evictsLeastRecentlyUsed() {
+        DetectionCache cache = new DetectionCache(2, null, 0);
+        cache.put("a", batch(1));
+        cache.put("b", batch(2));
+        cache.get("a");
+        cache.put("c", batch(3));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    public void diskTier_survivesNewInstance() throws Exception {
+        File dir = tmp.newFolder();
+        new DetectionCache(4, dir, 8).put("a", batch(7));
+
+        DetectionCache reopened = new DetectionCache(4, dir, 8);
+        DetectionBatch hit = reopened.get("a");
+        assertNotNull(hit);
+        assertEquals(7, hit.classIds[0]);
+        assertEquals(0.4f, hit.scores[1], 0f);
+        assertEquals(1, reopened.diskHits());
+        // Promoted to memory on the first read
+        reopened.get("a");
+        assertEquals(1, reopened.memoryHits());
+    }
+
+    @Test
+    public void diskTier_keepsAtMostItsEntryCount() throws Exception {
+        File dir = tmp.newFolder();
+        DetectionCache cache = new DetectionCache(1, dir, 3);
+        for (int i = 0; i < 6; i++) {
+            cache.put("k" + i, batch(i));
+            new File(dir, "k" + i + ".det").setLastModified(1_000_000L * (i + 1));
+        }
+        assertEquals(3, dir.list().length);
+    }
+
+    @Test
+    public void keys_dependOnContentAndSalt() {
+        assertEquals(DetectionCache.pixelKey(image(1), "FP16@640"), DetectionCache.pixelKey(image(1), "FP16@640"));
+        assertNotEquals(DetectionCache.pixelKey(image(1), "FP16@640"), DetectionCache.pixelKey(image(2), "FP16@640"));
+        assertNotEquals(DetectionCache.pixelKey(image(1), "FP16@640"), DetectionCache.pixelKey(image(1), "INT8@640"));
+        assertNotEquals(DetectionCache.sourceKey("content://x/1", 100, 5, "s"),
+                DetectionCache.sourceKey("content://x/1", 100, 6, "s"));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: DetectionEngineTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+/**
+ * Local unit test for {@link DetectionEngine}: the model is replaced by a runner that writes
+ * one fixed detection, so only the Java side of the pipeline is measured.
+ */
+public class DetectionEngineTest {
+
+    private static final int INPUT_SIZE = 64;
+
+    /** Synthetic 1000x500 photo; every row is the same hashed pattern. */
+    private static final PixelSource SOURCE = new PixelSource() {
+        @Override public int width() { return 1000; }
+        @Override public int height() { return 500; }
+        @Override public void readRow(int y, int[] dst) {
+            for (int x = 0; x < 1000; x++) dst[x] = 0xFF000000 | ((x + y) * 0x9E3779B1 >>> 8);
+        }
+    };
+
+    private static DetectionEngine newEngine() {
+        return new DetectionEngine((input, output) -> {
+            ByteBuffer out = (ByteBuffer) output;
+            int row = 4 * 123 * DetectionEngine.ROW_SIZE;
+            out.putFloat(row, 0.5f).putFloat(row + 4, 0.5f).putFloat(row + 8, 0.2f)
+                    .putFloat(row + 12, 0.4f).putFloat(row + 16, 0.9f).putFloat(row + 4 * (5 + 17), 0.8f);
+        }, INPUT_SIZE);
+    }
+
+    @Test
+    public void run_reportsBoxInImageCoordinates() {
+        DetectionEngine engine = newEngine();
+        assertEquals(1, engine.run(SOURCE));
+        DetectionBatch batch = engine.batch();
+        assertEquals(17, batch.classIds[0]);
+        assertEquals(0.72f, batch.scores[0], 1e-6f);
+        assertEquals(400f, batch.boxes[0], 1e-3f);
+        assertEquals(50f, batch.boxes[1], 1e-3f);
+        assertEquals(600f, batch.boxes[2], 1e-3f);
+        assertEquals(450f, batch.boxes[3], 1e-3f);
+    }
+
+    @Test
+    public void run_timesEachStage() {
+        DetectionEngine engine = new DetectionEngine((input, output) -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, INPUT_SIZE);
+        engine.run(SOURCE);
+        assertTrue(engine.preprocessNanos() > 0);
+        assertTrue(engine.inferenceNanos() >= 20_000_000L);
+        assertTrue(engine.postprocessNanos() > 0);
+        assertTrue(engine.preprocessNanos() < engine.inferenceNanos());
+    }
+
+    @Test
+    public void run_quantizedDequantizesPassingRows() {
+        DetectionEngine.Quantization q = new DetectionEngine.Quantization(1 / 255f, 0, 0.004f, 0);
+        DetectionEngine engine = new DetectionEngine((input, output) -> {
+            assertEquals(INPUT_SIZE * INPUT_SIZE * 3, ((ByteBuffer) input).capacity());
+            ByteBuffer out = (ByteBuffer) output;
+            int base = 123 * DetectionEngine.ROW_SIZE;
+            out.put(base, (byte) 125).put(base + 1, (byte) 125).put(base + 2, (byte) 50)
+                    .put(base + 3, (byte) 100).put(base + 4, (byte) 225).put(base + 5 + 17, (byte) 200);
+            // Objectness just under the threshold must be skipped before dequantization
+            out.put(7 * DetectionEngine.ROW_SIZE + 4, (byte) 62).put(7 * DetectionEngine.ROW_SIZE + 5, (byte) 250);
+        }, INPUT_SIZE, q);
+
+        assertEquals(1, engine.run(SOURCE));
+        DetectionBatch batch = engine.batch();
+        assertEquals(17, batch.classIds[0]);
+        assertEquals(0.72f, batch.scores[0], 1e-5f);
+        assertEquals(400f, batch.boxes[0], 1e-2f);
+        assertEquals(450f, batch.boxes[3], 1e-2f);
+    }
+
+    @Test
+    public void rowsFor_matchesYoloGrids() {
+        assertEquals(DetectionEngine.NUM_ROWS, DetectionEngine.rowsFor(640));
+        assertEquals(10647, DetectionEngine.rowsFor(416));
+        assertEquals(6300, DetectionEngine.rowsFor(320));
+    }
+
+    @Test
+    public void run_doesNotAllocateAfterWarmUp() {
+        com.sun.management.ThreadMXBean mx =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        DetectionEngine engine = newEngine();
+
+        for (int i = 0; i < 500; i++) engine.run(SOURCE);
+
+        // JIT tier changes can allocate once in a while on the test thread, so keep the best window
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < 5 && allocated > 0; window++) {
+            long before = mx.getThreadAllocatedBytes(tid);
+            for (int i = 0; i < 200; i++) engine.run(SOURCE);
+            allocated = Math.min(allocated, mx.getThreadAllocatedBytes(tid) - before);
+        }
+
+        assertEquals("bytes allocated by 200 warm detections", 0, allocated);
+    }
+}
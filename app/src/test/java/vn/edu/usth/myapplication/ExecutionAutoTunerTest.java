@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ExecutionAutoTunerTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExecutionAutoTunerTest {
+
+    private static final PixelSource INPUT = new PixelSource() {
+        @Override public int width() { return 32; }
+        @Override public int height() { return 32; }
+        @Override public void readRow(int y, int[] dst) { Arrays.fill(dst, 0, 32, 0xFF808080); }
+    };
+
+    /** Fake device: two threads is the sweet spot, XNNPACK saves a little, 4 threads fails. */
+    private static DetectionEngine fakeEngine(ExecutionOptions options) {
+        if (options.numThreads == 4) throw new IllegalStateException("unsupported");
+        long millis = (options.numThreads == 2 ? 4 : 12) - (options.useXnnpack ? 2 : 0);
+        return new DetectionEngine((input, output) -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 32);
+    }
+
+    private static final ExecutionAutoTuner.IdleGate IDLE = () -> { };
+
+    @Test
+    public void tune_picksFastestWorkingConfiguration() throws Exception {
+        List<ExecutionOptions> candidates = ExecutionOptions.tuningCandidates(8, false);
+        assertEquals(6, candidates.size());
+        assertEquals(new ExecutionOptions(2, true, false),
+                ExecutionAutoTuner.tune(candidates, ExecutionAutoTunerTest::fakeEngine, INPUT, 1, IDLE));
+    }
+
+    @Test
+    public void tune_fallsBackToFirstCandidateWhenAllFail() throws Exception {
+        List<ExecutionOptions> candidates = Arrays.asList(
+                new ExecutionOptions(4, true, false), new ExecutionOptions(4, false, false));
+        assertSame(candidates.get(0),
+                ExecutionAutoTuner.tune(candidates, ExecutionAutoTunerTest::fakeEngine, INPUT, 1, IDLE));
+    }
+
+    /**
+     * Fake 4-core device: work splits over the threads until the engines alive together need
+     * more threads than there are cores, then contention slows everything down faster than the
+     * excess alone would.
+     */
+    private static DetectionEngine sharedCoresEngine(ExecutionOptions options, AtomicInteger alive) {
+        alive.incrementAndGet();
+        return new DetectionEngine(new DetectionEngine.ModelRunner() {
+            @Override
+            public void run(Object input, Object output) {
+                double oversubscribed = Math.max(1.0, options.numThreads * alive.get() / 4.0);
+                try {
+                    Thread.sleep(Math.round(24.0 / options.numThreads * oversubscribed * oversubscribed));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void close() {
+                alive.decrementAndGet();
+            }
+        }, 32);
+    }
+
+    @Test
+    public void tune_timesEnginesRunningSideBySide() throws Exception {
+        List<ExecutionOptions> candidates = Arrays.asList(
+                new ExecutionOptions(2, true, false), new ExecutionOptions(4, true, false));
+        AtomicInteger alive = new AtomicInteger();
+        // Alone, 4 threads is twice as fast
+        assertEquals(new ExecutionOptions(4, true, false), ExecutionAutoTuner.tune(candidates,
+                options -> sharedCoresEngine(options, alive), INPUT, 1, IDLE));
+        // With two interpreters at once, 4 threads each oversubscribe the cores
+        assertEquals(new ExecutionOptions(2, true, false), ExecutionAutoTuner.tune(candidates,
+                options -> sharedCoresEngine(options, alive), INPUT, 2, IDLE));
+        assertEquals(0, alive.get());
+    }
+
+    @Test
+    public void tune_waitsForIdleBeforeEachCandidate() throws Exception {
+        AtomicInteger waits = new AtomicInteger();
+        List<ExecutionOptions> candidates = ExecutionOptions.tuningCandidates(2, false);
+        ExecutionAutoTuner.tune(candidates, ExecutionAutoTunerTest::fakeEngine, INPUT, 1, waits::incrementAndGet);
+        assertEquals(candidates.size(), waits.get());
+    }
+
+    @Test
+    public void options_roundTripThroughPreferenceString() {
+        ExecutionOptions options = new ExecutionOptions(3, false, true);
+        assertEquals(options, ExecutionOptions.decode(options.encode(), ExecutionOptions.DEFAULT));
+        assertSame(ExecutionOptions.DEFAULT, ExecutionOptions.decode("garbage", ExecutionOptions.DEFAULT));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ImagePreprocessorTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+public class ImagePreprocessorTest {
+
+    /** Left half red, right half blue. */
+    private static PixelSource halves(int w, int h) {
+        return new PixelSource() {
+            @Override public int width() { return w; }
+            @Override public int height() { return h; }
+            @Override public void readRow(int y, int[] dst) {
+                for (int x = 0; x < w; x++) dst[x] = x < w / 2 ? 0xFFFF0000 : 0xFF0000FF;
+            }
+        };
+    }
+
+    private static float at(FloatBuffer buf, int size, int x, int y, int channel) {
+        return buf.get((y * size + x) * 3 + channel);
+    }
+
+    @Test
+    public void process_letterboxesWideImage() {
+        FloatBuffer out = FloatBuffer.allocate(64 * 64 * 3);
+        Letterbox lb = new ImagePreprocessor(64).process(halves(400, 200), out, new Letterbox());
+
+        assertEquals(0.16f, lb.scale(), 1e-6f);
+        assertEquals(0, lb.padX());
+        assertEquals(16, lb.padY());
+        assertEquals(64, lb.contentWidth());
+        assertEquals(32, lb.contentHeight());
+
+        assertEquals(ImagePreprocessor.PAD_VALUE, at(out, 64, 10, 5, 0), 0f);
+        assertEquals(ImagePreprocessor.PAD_VALUE, at(out, 64, 10, 60, 2), 0f);
+        assertEquals(1f, at(out, 64, 10, 30, 0), 1e-6f);
+        assertEquals(0f, at(out, 64, 10, 30, 2), 1e-6f);
+        assertEquals(0f, at(out, 64, 50, 30, 0), 1e-6f);
+        assertEquals(1f, at(out, 64, 50, 30, 2), 1e-6f);
+    }
+
+    @Test
+    public void process_quantizedWritesLookupTableBytes() {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(64);
+        ByteBuffer out = ByteBuffer.allocate(64 * 64 * 3);
+        preprocessor.process(halves(400, 200), out, ImagePreprocessor.quantizationTable(1 / 255f, 0), new Letterbox());
+
+        assertEquals(ImagePreprocessor.PAD_PIXEL, out.get((5 * 64 + 10) * 3) & 0xFF);
+        assertEquals(255, out.get((30 * 64 + 10) * 3) & 0xFF);
+        assertEquals(0, out.get((30 * 64 + 10) * 3 + 2) & 0xFF);
+        assertEquals(255, out.get((30 * 64 + 50) * 3 + 2) & 0xFF);
+    }
+
+    @Test
+    public void process_mapsBackToSource() {
+        Letterbox lb = new ImagePreprocessor(64)
+                .process(halves(100, 400), FloatBuffer.allocate(64 * 64 * 3), new Letterbox());
+
+        assertEquals(24, lb.padX());
+        assertEquals(0, lb.padY());
+        assertEquals(0f, lb.toSourceX(24), 1e-4f);
+        assertEquals(100f, lb.toSourceX(40), 1e-4f);
+        assertEquals(200f, lb.toSourceY(32), 1e-4f);
+        assertEquals(0f, lb.toSourceX(3), 0f);
+    }
+}
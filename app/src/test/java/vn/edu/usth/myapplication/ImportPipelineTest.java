@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ImportPipelineTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ImportPipelineTest {
+
+    private final ExecutorService decodePool = Executors.newFixedThreadPool(2);
+    private final ExecutorService detectPool = Executors.newFixedThreadPool(2);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> stored = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void tearDown() {
+        decodePool.shutdownNow();
+        detectPool.shutdownNow();
+        writer.shutdownNow();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Integer> sources(int n) {
+        List<Integer> sources = new ArrayList<>();
+        for (int i = 0; i < n; i++) sources.add(i);
+        return sources;
+    }
+
+    /** Decode takes 3 ms, detection 5 ms; source 7 fails to decode. */
+    private ImportPipeline<Integer, int[]> pipeline(List<Integer> sources, ImportPipeline.Listener listener) {
+        return new ImportPipeline<>(sources,
+                source -> {
+                    if (source == 7) throw new IllegalStateException("corrupt");
+                    sleep(3);
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return new int[]{source};
+                },
+                image -> CompletableFuture.supplyAsync(() -> {
+                    sleep(5);
+                    DetectionBatch batch = new DetectionBatch(1);
+                    batch.add(0, 0, 1, 1, 0.9f, image[0]);
+                    return batch;
+                }, detectPool),
+                image -> inFlight.decrementAndGet(),
+                results -> {
+                    batchSizes.add(results.size());
+                    for (ImportPipeline.Result<Integer> r : results) {
+                        if (r.error == null) stored.add(r.detections.classIds[0]);
+                    }
+                },
+                listener, decodePool, writer, 3, 8);
+    }
+
+    @Test
+    public void everyImageIsStoredInBatches() throws Exception {
+        ImportPipeline.Progress progress = pipeline(sources(40), p -> { }).start().get(10, TimeUnit.SECONDS);
+        assertTrue(progress.finished);
+        assertEquals(40, progress.processed);
+        assertEquals(1, progress.failed);
+        assertEquals(39, progress.saved);
+        assertEquals(39, stored.size());
+        assertEquals(5, batchSizes.size());
+        for (int size : batchSizes) assertEquals(8, size);
+    }
+
+    @Test
+    public void decodedImagesStayBounded() throws Exception {
+        pipeline(sources(40), p -> { }).start().get(10, TimeUnit.SECONDS);
+        assertTrue("max in flight " + maxInFlight, maxInFlight.get() <= 3);
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    public void progressIsReportedInOrder() throws Exception {
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        pipeline(sources(20), p -> processed.add(p.processed)).start().get(10, TimeUnit.SECONDS);
+        assertEquals(20, processed.size());
+        for (int i = 0; i < 20; i++) assertEquals(i + 1, (int) processed.get(i));
+    }
+
+    @Test
+    public void cancel_finishesTheImagesInFlight() throws Exception {
+        ImportPipeline<Integer, int[]> pipeline = pipeline(sources(200), p -> { });
+        CompletableFuture<ImportPipeline.Progress> done = pipeline.start();
+        sleep(30);
+        pipeline.cancel();
+        ImportPipeline.Progress progress = done.get(10, TimeUnit.SECONDS);
+        assertTrue(progress.cancelled);
+        assertTrue(progress.processed < 200);
+        assertEquals(progress.processed, progress.saved + progress.failed);
+        assertEquals(0, inFlight.get());
+    }
+
+    @Test
+    public void empty_finishesImmediately() throws Exception {
+        ImportPipeline.Progress progress = pipeline(sources(0), p -> { }).start().get(10, TimeUnit.SECONDS);
+        assertTrue(progress.finished);
+        assertEquals(0, progress.total);
+    }
+
+    /**
+     * The next image is decoded while the previous one is being detected: the detection of
+     * image 0 only finishes once image 1 is decoded, and decoding image 1 only finishes once that
+     * detection has started. One stage at a time would time out on the latches.
+     */
+    @Test
+    public void decodeOverlapsDetection() throws Exception {
+        CountDownLatch detecting = new CountDownLatch(1);
+        CountDownLatch decoded = new CountDownLatch(1);
+        AtomicBoolean overlapped = new AtomicBoolean(true);
+        ImportPipeline<Integer, int[]> pipeline = new ImportPipeline<>(sources(2),
+                source -> {
+                    if (source == 1) {
+                        if (!detecting.await(5, TimeUnit.SECONDS)) overlapped.set(false);
+                        decoded.countDown();
+                    }
+                    return new int[]{source};
+                },
+                image -> CompletableFuture.supplyAsync(() -> {
+                    if (image[0] == 0) {
+                        detecting.countDown();
+                        try {
+                            if (!decoded.await(5, TimeUnit.SECONDS)) overlapped.set(false);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return new DetectionBatch(1);
+                }, detectPool),
+                image -> { },
+                results -> { },
+                p -> { }, decodePool, writer, 2, 8);
+
+        ImportPipeline.Progress progress = pipeline.start().get(15, TimeUnit.SECONDS);
+        assertEquals(2, progress.saved);
+        assertTrue("decode and detection ran one after the other", overlapped.get());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: InputSizeSelectorTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class InputSizeSelectorTest {
+
+    private static InputSizeSelector all() {
+        return new InputSizeSelector(InputSizeSelector.SUPPORTED_SIZES);
+    }
+
+    @Test
+    public void select_startsWithLargestBeforeAnyMeasurement() {
+        assertEquals(640, all().select(1));
+        assertTrue(Double.isNaN(all().estimateMillis(320)));
+    }
+
+    @Test
+    public void select_dropsToLargestSizeThatFitsBudget() {
+        InputSizeSelector selector = all();
+        selector.record(640, 400);
+        // 416 is estimated by area: 400 * (416/640)^2 = 169 ms
+        assertEquals(169, selector.estimateMillis(416), 1);
+        assertEquals(416, selector.select(250));
+        assertEquals(320, selector.select(120));
+        assertEquals(640, selector.select(500));
+        // Nothing fits: the smallest is still the best bet
+        assertEquals(320, selector.select(10));
+    }
+
+    @Test
+    public void record_smoothsTowardsRecentLatency() {
+        InputSizeSelector selector = all();
+        selector.record(320, 100);
+        for (int i = 0; i < 30; i++) selector.record(320, 50);
+        assertEquals(50, selector.estimateMillis(320), 1);
+        // A measured size is preferred over scaling from the others
+        selector.record(640, 1000);
+        assertEquals(50, selector.estimateMillis(320), 1);
+    }
+
+    @Test
+    public void select_honoursQualityHint() {
+        InputSizeSelector selector = new InputSizeSelector(new int[] {640, 320});
+        selector.record(640, 1000);
+        assertEquals(320, selector.select(InputSizeSelector.Quality.FAST, 10_000));
+        assertEquals(640, selector.select(InputSizeSelector.Quality.ACCURATE, 1));
+        assertEquals(320, selector.select(InputSizeSelector.Quality.BALANCED, 500));
+    }
+
+    @Test
+    public void select_probesLargerSizeAndClimbsBackWhenLatencyRecovers() {
+        InputSizeSelector selector = all();
+        // A slow stretch rules 640 out
+        selector.record(640, 400);
+        assertEquals(416, selector.select(250));
+
+        int probes = 0;
+        int picked = 0;
+        for (int i = 0; i < 2 * InputSizeSelector.PROBE_EVERY && picked != 640; i++) {
+            picked = selector.select(250);
+            if (picked == 640) probes++;
+            // Latency is back to normal: 640 runs in 150 ms again
+            selector.record(picked, picked == 640 ? 150 : 70);
+        }
+        assertEquals(1, probes);
+        assertEquals(640, selector.select(250));
+        assertEquals(150, selector.estimateMillis(640), 1);
+    }
+
+    @Test
+    public void select_staysDownWhenProbeIsStillSlow() {
+        InputSizeSelector selector = all();
+        selector.record(640, 400);
+        int probes = 0;
+        for (int i = 0; i < 3 * InputSizeSelector.PROBE_EVERY; i++) {
+            int picked = selector.select(250);
+            if (picked == 640) probes++;
+            selector.record(picked, picked == 640 ? 400 : 170);
+        }
+        // Only the periodic probes ran at 640
+        assertEquals(3, probes);
+        assertEquals(416, selector.select(250));
+    }
+}
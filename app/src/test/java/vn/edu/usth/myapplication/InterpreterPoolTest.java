@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: InterpreterPoolTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InterpreterPoolTest {
+
+    private final AtomicInteger closed = new AtomicInteger();
+
+    private DetectionEngine newEngine(int inputSize) {
+        return new DetectionEngine(new DetectionEngine.ModelRunner() {
+            @Override
+            public void run(Object input, Object output) {
+            }
+
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        }, inputSize);
+    }
+
+    @Test
+    public void acquire_createsLazilyAndReusesReleasedEngines() throws Exception {
+        InterpreterPool pool = new InterpreterPool(this::newEngine, 2);
+        assertEquals(0, pool.size());
+
+        DetectionEngine a = pool.acquire(32);
+        DetectionEngine b = pool.acquire(32);
+        assertNotSame(a, b);
+        assertEquals(2, pool.size());
+
+        pool.release(a);
+        assertSame(a, pool.acquire(32));
+        assertEquals(2, pool.size());
+        pool.close();
+    }
+
+    @Test
+    public void submit_runsUpToMaxSizeInParallel() throws Exception {
+        InterpreterPool pool = new InterpreterPool(this::newEngine, 3);
+        CountDownLatch allRunning = new CountDownLatch(3);
+        List<CompletableFuture<DetectionEngine>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(pool.submit(32, engine -> {
+                allRunning.countDown();
+                try {
+                    // Only completes if three tasks hold an engine at the same time
+                    assertTrue(allRunning.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return engine;
+            }));
+        }
+        for (CompletableFuture<DetectionEngine> f : futures) f.get(5, TimeUnit.SECONDS);
+        assertEquals(3, pool.size());
+
+        pool.close();
+        assertEquals(3, closed.get());
+    }
+
+    @Test
+    public void acquire_sharesSlotsAcrossSizes() throws Exception {
+        InterpreterPool pool = new InterpreterPool(this::newEngine, 2);
+        pool.release(pool.acquire(64));
+        DetectionEngine a = pool.acquire(32);
+        DetectionEngine b = pool.acquire(32);
+        // The idle 64 engine gave its slot to the second 32 one
+        assertEquals(2, pool.size());
+        assertEquals(0, pool.size(64));
+        assertEquals(1, closed.get());
+        pool.release(a);
+        pool.release(b);
+        pool.close();
+    }
+
+    @Test
+    public void release_closesEnginesOfSizesNoLongerRequested() throws Exception {
+        long[] now = {0};
+        InterpreterPool pool = new InterpreterPool(this::newEngine, 3, 1000, () -> now[0]);
+        DetectionEngine a = pool.acquire(64);
+        DetectionEngine b = pool.acquire(64);
+        pool.release(a);
+        pool.release(b);
+        assertEquals(2, pool.size(64));
+
+        // Only 32 is asked for from now on, e.g. after the size selector moved down
+        for (int i = 0; i < 5; i++) {
+            now[0] += 500;
+            pool.release(pool.acquire(32));
+        }
+        assertEquals(0, pool.size(64));
+        assertEquals(1, pool.size(32));
+        assertEquals(2, closed.get());
+        pool.close();
+    }
+
+    @Test
+    public void acquire_waitsForReleaseWhenEverySlotIsBusy() throws Exception {
+        InterpreterPool pool = new InterpreterPool(this::newEngine, 1);
+        DetectionEngine busy = pool.acquire(64);
+        CompletableFuture<DetectionEngine> waiting = pool.submit(32, engine -> engine);
+        Thread.sleep(50);
+        assertTrue(!waiting.isDone());
+        pool.release(busy);
+        assertEquals(32, waiting.get(5, TimeUnit.SECONDS).inputSize());
+        assertEquals(1, pool.size());
+        pool.close();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: LatencyHistogramTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_areContiguousAndWithinOneSixteenth() {
+        for (long micros = 0; micros < 1_000_000; micros += 1 + micros / 100) {
+            int i = LatencyHistogram.indexOf(micros);
+            long low = LatencyHistogram.lowerBound(i), high = LatencyHistogram.lowerBound(i + 1);
+            assertTrue(micros + " in [" + low + ", " + high + ")", low <= micros && micros < high);
+            assertTrue(high - low <= Math.max(1, low / 8));
+        }
+    }
+
+    @Test
+    public void percentiles_ofUniformSamples() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) h.recordNanos(ms * 1_000_000L);
+        assertEquals(100, h.count());
+        assertEquals(50, h.percentileMillis(50), 50 / 16.0);
+        assertEquals(95, h.percentileMillis(95), 95 / 16.0);
+        assertEquals(99, h.percentileMillis(99), 99 / 16.0);
+        assertEquals(100, h.maxMillis(), 0);
+        assertEquals(50.5, h.meanMillis(), 1e-9);
+    }
+
+    @Test
+    public void percentiles_seeTheTail() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 980; i++) h.recordNanos(5_000_000L);
+        for (int i = 0; i < 20; i++) h.recordNanos(400_000_000L);
+        assertEquals(5, h.percentileMillis(50), 0.5);
+        assertEquals(5, h.percentileMillis(95), 0.5);
+        assertEquals(400, h.percentileMillis(99), 25);
+    }
+
+    @Test
+    public void empty_reportsNaN() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.recordNanos(1_000_000L);
+        h.reset();
+        assertEquals(0, h.count());
+        assertTrue(Double.isNaN(h.percentileMillis(50)));
+        assertTrue(Double.isNaN(h.meanMillis()));
+    }
+}
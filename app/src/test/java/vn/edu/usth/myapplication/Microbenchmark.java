@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: Microbenchmark.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Minimal JMH-style harness for plain JVM unit tests: warms an operation up, then times several
+ * fixed-length iterations on the calling thread. Throughput is the median iteration; allocation
+ * is the lowest iteration, since JIT tier changes occasionally allocate on the benchmark thread.
+ */
+final class Microbenchmark {
+
+    static final class Result {
+        final String name;
+        final double opsPerSecond;
+        final double bytesPerOp;
+
+        Result(String name, double opsPerSecond, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-24s %12.1f ops/s %10.1f B/op", name, opsPerSecond, bytesPerOp);
+        }
+    }
+
+    private static final long WARM_UP_NANOS = 500_000_000L;
+    private static final long ITERATION_NANOS = 200_000_000L;
+    private static final int ITERATIONS = 5;
+
+    private Microbenchmark() {
+    }
+
+    static Result measure(String name, Runnable op) {
+        com.sun.management.ThreadMXBean mx =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+
+        long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+        while (System.nanoTime() < warmUpEnd) op.run();
+
+        double[] ops = new double[ITERATIONS];
+        double bytes = Double.MAX_VALUE;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long count = 0;
+            long allocatedBefore = mx.getThreadAllocatedBytes(tid);
+            long start = System.nanoTime();
+            long end = start + ITERATION_NANOS;
+            long now;
+            do {
+                op.run();
+                count++;
+            } while ((now = System.nanoTime()) < end);
+            long allocated = mx.getThreadAllocatedBytes(tid) - allocatedBefore;
+            ops[i] = count * 1e9 / (now - start);
+            bytes = Math.min(bytes, allocated / (double) count);
+        }
+        Arrays.sort(ops);
+        return new Result(name, ops[ITERATIONS / 2], bytes);
+    }
+}
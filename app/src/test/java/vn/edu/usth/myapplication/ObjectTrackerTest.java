@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ObjectTrackerTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ObjectTrackerTest {
+
+    private static DetectionBatch box(DetectionBatch batch, float left, float top, float size, int classId) {
+        batch.add(left, top, left + size, top + size, 0.8f, classId);
+        return batch;
+    }
+
+    /** Runs one frame the way the live analyzer does; returns the number of shown tracks. */
+    private static int frame(ObjectTracker tracker, DetectionBatch detections, DetectionBatch out, int[] ids) {
+        if (tracker.needsKeyframe()) tracker.update(detections);
+        else tracker.predict();
+        return tracker.snapshot(out, ids);
+    }
+
+    @Test
+    public void keyframes_followTheInterval() {
+        ObjectTracker tracker = new ObjectTracker(4, 20);
+        DetectionBatch out = new DetectionBatch(20);
+        int[] ids = new int[20];
+        for (int f = 0; f < 40; f++) {
+            frame(tracker, box(new DetectionBatch(4), 100, 100, 50, 0), out, ids);
+        }
+        assertEquals(40, tracker.frames());
+        assertEquals(10, tracker.keyframes());
+        assertEquals(1, out.size());
+        assertEquals(1, ids[0]);
+    }
+
+    @Test
+    public void movingObject_keepsItsIdAndIsPredictedBetweenKeyframes() {
+        ObjectTracker tracker = new ObjectTracker(3, 20);
+        DetectionBatch out = new DetectionBatch(20);
+        int[] ids = new int[20];
+        // Two objects, one moving right 4 px a frame
+        for (int f = 0; f < 60; f++) {
+            DetectionBatch detections = new DetectionBatch(4);
+            box(detections, 20 + 4 * f, 100, 80, 1);
+            box(detections, 400, 400, 60, 2);
+            frame(tracker, detections, out, ids);
+        }
+        assertEquals(2, out.size());
+        assertEquals(1, ids[0]);
+        assertEquals(2, ids[1]);
+        // Predicted, not stale: within a few pixels of where the object is on the last frame
+        assertEquals(20 + 4 * 59, out.boxes[0], 6f);
+        assertEquals(20, tracker.keyframes());
+    }
+
+    @Test
+    public void droppedDetection_doesNotFlickerTheLabel() {
+        ObjectTracker tracker = new ObjectTracker(1, 20);
+        DetectionBatch out = new DetectionBatch(20);
+        int[] ids = new int[20];
+        int rawChanges = 0;
+        boolean rawShown = false;
+        for (int f = 0; f < 30; f++) {
+            // The detector misses the object on every fifth frame
+            boolean seen = f % 5 != 4;
+            DetectionBatch detections = new DetectionBatch(4);
+            if (seen) box(detections, 100, 100, 50, 0);
+            assertEquals(1, frame(tracker, detections, out, ids));
+            assertEquals(1, ids[0]);
+            if (seen != rawShown) rawChanges++;
+            rawShown = seen;
+        }
+        assertEquals(1, tracker.labelChanges());
+        assertTrue(rawChanges > 10);
+    }
+
+    @Test
+    public void lostObject_isDroppedAndNewOneGetsNewId() {
+        ObjectTracker tracker = new ObjectTracker(1, 20);
+        DetectionBatch out = new DetectionBatch(20);
+        int[] ids = new int[20];
+        frame(tracker, box(new DetectionBatch(4), 100, 100, 50, 0), out, ids);
+        for (int f = 0; f < 3; f++) frame(tracker, new DetectionBatch(4), out, ids);
+        assertEquals(0, out.size());
+        frame(tracker, box(new DetectionBatch(4), 100, 100, 50, 0), out, ids);
+        assertEquals(2, ids[0]);
+    }
+
+    @Test
+    public void poorMatches_forceKeyframeOnNextFrame() {
+        ObjectTracker tracker = new ObjectTracker(5, 20);
+        DetectionBatch out = new DetectionBatch(20);
+        int[] ids = new int[20];
+        frame(tracker, box(new DetectionBatch(4), 100, 100, 100, 0), out, ids);
+        assertFalse(tracker.needsKeyframe());
+        for (int f = 0; f < 4; f++) frame(tracker, new DetectionBatch(4), out, ids);
+        // Jumped by 45% of its size: still the same object, but tracking is unreliable
+        frame(tracker, box(new DetectionBatch(4), 145, 100, 100, 0), out, ids);
+        assertEquals(1, ids[0]);
+        assertTrue(tracker.needsKeyframe());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: PipelineMetricsTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+public class PipelineMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void summary_listsOnlyRecordedStages() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        assertEquals("", metrics.summary());
+        metrics.record(PipelineMetrics.Stage.INFERENCE, 42_000_000L);
+        String summary = metrics.summary();
+        assertTrue(summary, summary.startsWith("inference   n=1"));
+        assertEquals(1, summary.split("\n").length);
+    }
+
+    @Test
+    public void export_writesOneCsvRowPerStage() throws Exception {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.record(PipelineMetrics.Stage.DECODE, 12_000_000L);
+        File file = metrics.export(new File(folder.getRoot(), "latency"), "Acme Phone/1");
+        assertTrue(file.getName(), file.getName().startsWith("latency-Acme_Phone_1-"));
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(1 + PipelineMetrics.Stage.values().length, lines.size());
+        assertEquals("stage,count,p50_ms,p95_ms,p99_ms,max_ms,mean_ms", lines.get(0));
+        assertTrue(lines.get(1), lines.get(1).startsWith("decode,1,"));
+        assertTrue(lines.get(2), lines.get(2).startsWith("copy,0,NaN"));
+    }
+}
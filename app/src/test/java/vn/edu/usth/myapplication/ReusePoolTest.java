@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: ReusePoolTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReusePoolTest {
+
+    private final List<byte[]> released = new ArrayList<>();
+
+    private ReusePool<byte[]> pool(long maxBytes) {
+        return new ReusePool<>(maxBytes, b -> b.length, released::add);
+    }
+
+    @Test
+    public void take_returnsSmallestFittingBuffer() {
+        ReusePool<byte[]> pool = pool(10_000);
+        byte[] small = new byte[100], medium = new byte[400], large = new byte[1000];
+        pool.put(large);
+        pool.put(small);
+        pool.put(medium);
+
+        assertSame(medium, pool.take(300, 600));
+        assertNull(pool.take(300, 600));
+        assertSame(large, pool.take(300, 2000));
+        assertEquals(100, pool.bytes());
+        assertEquals(2, pool.hits());
+        assertEquals(1, pool.misses());
+    }
+
+    @Test
+    public void take_ignoresBuffersAboveTheUpperBound() {
+        ReusePool<byte[]> pool = pool(10_000);
+        pool.put(new byte[5000]);
+
+        assertNull(pool.take(100, 200));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void put_overBudget_releasesOldestFirst() {
+        ReusePool<byte[]> pool = pool(1000);
+        byte[] first = new byte[400], second = new byte[400], third = new byte[400];
+        pool.put(first);
+        pool.put(second);
+        pool.put(third);
+
+        assertEquals(1, released.size());
+        assertSame(first, released.get(0));
+        assertEquals(800, pool.bytes());
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void put_largerThanBudget_isReleasedRightAway() {
+        ReusePool<byte[]> pool = pool(1000);
+        byte[] huge = new byte[2000];
+        pool.put(huge);
+
+        assertSame(huge, released.get(0));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void setMaxBytes_shrinksAndClearEmpties() {
+        ReusePool<byte[]> pool = pool(10_000);
+        for (int i = 0; i < 10; i++) pool.put(new byte[500]);
+
+        pool.setMaxBytes(2000);
+        assertEquals(2000, pool.bytes());
+        assertEquals(6, released.size());
+
+        pool.clear();
+        assertEquals(0, pool.bytes());
+        assertEquals(0, pool.size());
+        assertEquals(10, released.size());
+        assertNull(pool.take(1, 1000));
+    }
+
+    @Test
+    public void equalBuffersAreKeptApart() {
+        ReusePool<String> pool = new ReusePool<>(100, s -> 10, s -> { });
+        String a = new String("same"), b = new String("same");
+        pool.put(a);
+        pool.put(b);
+
+        assertEquals(2, pool.size());
+        assertSame(b, pool.take(10, 10));
+        assertSame(a, pool.take(10, 10));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: RgbaPlaneSourceTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class RgbaPlaneSourceTest {
+
+    /**
+     * 3x2 frame with 4 bytes of row padding; pixel (x, y) has red x, green y, blue 7.
+     * Upright it reads:  a b c
+     *                    d e f
+     */
+    private static ByteBuffer frame() {
+        int stride = 3 * 4 + 4;
+        ByteBuffer plane = ByteBuffer.allocateDirect(stride * 2);
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 3; x++) {
+                int o = y * stride + x * 4;
+                plane.put(o, (byte) x).put(o + 1, (byte) y).put(o + 2, (byte) 7).put(o + 3, (byte) 0xFF);
+            }
+        }
+        return plane;
+    }
+
+    private static int px(int x, int y) {
+        return 0xFF000000 | x << 16 | y << 8 | 7;
+    }
+
+    private static int[][] read(int rotation) {
+        RgbaPlaneSource src = new RgbaPlaneSource().set(frame(), 3, 2, 16, rotation);
+        int[][] rows = new int[src.height()][src.width()];
+        for (int y = 0; y < src.height(); y++) src.readRow(y, rows[y]);
+        return rows;
+    }
+
+    @Test
+    public void readRow_unrotated() {
+        int[][] rows = read(0);
+        assertArrayEquals(new int[] {px(0, 0), px(1, 0), px(2, 0)}, rows[0]);
+        assertArrayEquals(new int[] {px(0, 1), px(1, 1), px(2, 1)}, rows[1]);
+    }
+
+    @Test
+    public void readRow_rotatedClockwise() {
+        int[][] rows = read(90);
+        assertEquals(3, rows.length);
+        // d a / e b / f c
+        assertArrayEquals(new int[] {px(0, 1), px(0, 0)}, rows[0]);
+        assertArrayEquals(new int[] {px(2, 1), px(2, 0)}, rows[2]);
+    }
+
+    @Test
+    public void readRow_upsideDown() {
+        int[][] rows = read(180);
+        assertArrayEquals(new int[] {px(2, 1), px(1, 1), px(0, 1)}, rows[0]);
+    }
+
+    @Test
+    public void readRow_rotatedCounterClockwise() {
+        int[][] rows = read(270);
+        // c f / b e / a d
+        assertArrayEquals(new int[] {px(2, 0), px(2, 1)}, rows[0]);
+        assertArrayEquals(new int[] {px(0, 0), px(0, 1)}, rows[2]);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: StreamCopyTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class StreamCopyTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(7).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void copy_betweenStreams_keepsEveryByte() throws Exception {
+        byte[] data = randomBytes(3 * StreamCopy.BUFFER_SIZE + 17);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long copied = StreamCopy.copy(new ByteArrayInputStream(data), out);
+
+        assertEquals(data.length, copied);
+        assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    public void copy_betweenFiles_keepsEveryByte() throws Exception {
+        byte[] data = randomBytes(1_000_003);
+        File source = temp.newFile("source.jpg"), target = temp.newFile("target.jpg");
+        Files.write(source.toPath(), data);
+
+        long copied;
+        try (FileInputStream in = new FileInputStream(source); FileOutputStream out = new FileOutputStream(target)) {
+            copied = StreamCopy.copy(in, out);
+        }
+
+        assertEquals(data.length, copied);
+        assertArrayEquals(data, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void copy_fromFile_startsAtTheCurrentPosition() throws Exception {
+        byte[] data = randomBytes(1000);
+        File source = temp.newFile("source.jpg"), target = temp.newFile("target.jpg");
+        Files.write(source.toPath(), data);
+
+        try (FileInputStream in = new FileInputStream(source); FileOutputStream out = new FileOutputStream(target)) {
+            assertEquals(100, in.skip(100));
+            assertEquals(900, StreamCopy.copy(in, out));
+            assertEquals(-1, in.read());
+        }
+
+        byte[] expected = new byte[900];
+        System.arraycopy(data, 100, expected, 0, 900);
+        assertArrayEquals(expected, Files.readAllBytes(target.toPath()));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: TaskScopeTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+public class TaskScopeTest {
+
+    @Test
+    public void bind_forgetsFinishedTasks() {
+        TaskScope scope = new TaskScope();
+        CompletableFuture<String> task = scope.bind(new CompletableFuture<>());
+        assertEquals(1, scope.size());
+
+        task.complete("done");
+
+        assertEquals(0, scope.size());
+    }
+
+    @Test
+    public void cancel_cancelsRunningTasksAndTheirCallbacks() {
+        TaskScope scope = new TaskScope();
+        CompletableFuture<String> task = scope.bind(new CompletableFuture<>());
+        CompletableFuture<Integer> callback = task.thenApply(String::length);
+
+        scope.cancel();
+        task.complete("late");
+
+        assertFalse(scope.isActive());
+        assertTrue(task.isCancelled());
+        assertTrue(callback.isCompletedExceptionally());
+        assertEquals(0, scope.size());
+    }
+
+    @Test
+    public void bind_afterCancel_cancelsStraightAway() {
+        TaskScope scope = new TaskScope();
+        scope.cancel();
+
+        CompletableFuture<String> task = scope.bind(new CompletableFuture<>());
+
+        assertTrue(task.isCancelled());
+        assertEquals(0, scope.size());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: TileGridTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TileGridTest {
+
+    @Test
+    public void tiles_smallImageIsOneTile() {
+        assertArrayEquals(new int[] {0, 0, 800, 600}, TileGrid.tiles(800, 600));
+    }
+
+    @Test
+    public void tiles_coverImageWithRequestedOverlap() {
+        int[] tiles = TileGrid.tiles(4000, 3000, 1280, 0.2f, 12);
+        assertEquals(12, tiles.length / 4);
+        int maxRight = 0, maxBottom = 0;
+        for (int i = 0; i < tiles.length; i += 4) {
+            assertEquals(1280, tiles[i + 2] - tiles[i]);
+            assertEquals(1280, tiles[i + 3] - tiles[i + 1]);
+            maxRight = Math.max(maxRight, tiles[i + 2]);
+            maxBottom = Math.max(maxBottom, tiles[i + 3]);
+        }
+        assertEquals(4000, maxRight);
+        assertEquals(3000, maxBottom);
+        // Neighbours in a row share at least 20% of a tile
+        assertTrue(tiles[2] - tiles[4] >= 256);
+    }
+
+    @Test
+    public void tiles_growToRespectCap() {
+        int[] tiles = TileGrid.tiles(8000, 6000, 1280, 0.2f, 6);
+        assertTrue(tiles.length / 4 <= 6);
+        assertTrue(tiles[2] - tiles[0] > 1280);
+    }
+
+    @Test
+    public void merger_dropsBoxCutOffAtTileBorder() {
+        DetectionBatch left = new DetectionBatch(4);
+        left.add(900, 100, 1280, 300, 0.6f, 2);  // clipped at the tile's right edge
+        DetectionBatch right = new DetectionBatch(4);
+        right.add(0, 100, 300, 300, 0.9f, 2);    // the whole object, seen from the next tile
+        right.add(0, 100, 300, 300, 0.8f, 5);    // another class in the same place
+
+        TileMerger merger = new TileMerger(2);
+        merger.add(left, 0, 0, 1f);
+        merger.add(right, 800, 0, 1f);
+        DetectionBatch out = new DetectionBatch(20);
+        assertEquals(2, merger.merge(out));
+        assertEquals(0.9f, out.scores[0], 0f);
+        assertEquals(800f, out.boxes[0], 0f);
+        assertEquals(1100f, out.boxes[2], 0f);
+        assertEquals(5, out.classIds[1]);
+    }
+
+    @Test
+    public void merger_scalesOverviewBoxes() {
+        DetectionBatch overview = new DetectionBatch(1);
+        overview.add(10, 20, 30, 40, 0.5f, 0);
+        TileMerger merger = new TileMerger(1);
+        merger.add(overview, 0, 0, 4f);
+        DetectionBatch out = new DetectionBatch(1);
+        merger.merge(out);
+        assertArrayEquals(new float[] {40, 80, 120, 160}, out.boxes, 0f);
+    }
+}
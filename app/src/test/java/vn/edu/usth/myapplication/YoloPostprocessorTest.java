@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: YoloPostprocessorTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class YoloPostprocessorTest {
+
+    private static final Letterbox SQUARE = new Letterbox().fit(640, 640, 640);
+
+    private static final int STRIDE = DetectionEngine.ROW_SIZE;
+
+    private static float[] emptyRows(int n) {
+        return new float[n * STRIDE];
+    }
+
+    private static int rows(float[] flat) {
+        return flat.length / STRIDE;
+    }
+
+    private static void set(float[] rows, int row, float cx, float cy, float w, float h, float obj, int cls, float p) {
+        int base = row * STRIDE;
+        rows[base] = cx;
+        rows[base + 1] = cy;
+        rows[base + 2] = w;
+        rows[base + 3] = h;
+        rows[base + 4] = obj;
+        rows[base + 5 + cls] = p;
+    }
+
+    private static int process(YoloPostprocessor postprocessor, float[] rows, Letterbox letterbox, DetectionBatch out) {
+        return postprocessor.process(rows, rows(rows), STRIDE, letterbox, out);
+    }
+
+    @Test
+    public void process_suppressesOverlapOfSameClassOnly() {
+        float[] rows = emptyRows(10);
+        set(rows, 0, 0.50f, 0.50f, 0.2f, 0.2f, 0.9f, 3, 0.9f);
+        set(rows, 1, 0.51f, 0.50f, 0.2f, 0.2f, 0.8f, 3, 0.9f);
+        set(rows, 2, 0.50f, 0.51f, 0.2f, 0.2f, 0.8f, 7, 0.9f);
+        set(rows, 3, 0.10f, 0.10f, 0.1f, 0.1f, 0.7f, 3, 0.9f);
+
+        DetectionBatch out = new DetectionBatch(20);
+        assertEquals(3, process(new YoloPostprocessor(), rows, SQUARE, out));
+        assertEquals(3, out.classIds[0]);
+        assertEquals(0.81f, out.scores[0], 1e-6f);
+        assertEquals(7, out.classIds[1]);
+        assertEquals(3, out.classIds[2]);
+        assertEquals(0.63f, out.scores[2], 1e-6f);
+    }
+
+    @Test
+    public void process_confidenceIsObjectnessTimesClassScore() {
+        float[] rows = emptyRows(2);
+        set(rows, 0, 0.5f, 0.5f, 0.2f, 0.2f, 0.9f, 0, 0.2f);
+        assertEquals(0, process(new YoloPostprocessor(), rows, SQUARE, new DetectionBatch(20)));
+    }
+
+    @Test
+    public void process_respectsTopKAndMaxDetections() {
+        float[] rows = emptyRows(100);
+        for (int i = 0; i < rows(rows); i++) {
+            set(rows, i, (i % 10) / 10f + 0.05f, (i / 10) / 10f + 0.05f, 0.05f, 0.05f, 0.5f + i / 1000f, 0, 1f);
+        }
+        DetectionBatch out = new DetectionBatch(20);
+        assertEquals(5, process(new YoloPostprocessor(8, 5), rows, SQUARE, out));
+        for (int i = 0; i < 5; i++) assertEquals(0.5f + (99 - i) / 1000f, out.scores[i], 1e-6f);
+    }
+
+    @Test
+    public void process_clampsBoxesToImage() {
+        float[] rows = emptyRows(1);
+        set(rows, 0, 0.05f, 0.7f, 0.2f, 0.2f, 0.9f, 1, 0.9f);
+        DetectionBatch out = new DetectionBatch(20);
+        // 200x100 in 640: scale 3.2, 160 px of padding above and below
+        process(new YoloPostprocessor(), rows, new Letterbox().fit(200, 100, 640), out);
+        assertEquals(0f, out.boxes[0], 0f);
+        assertEquals(70f, out.boxes[1], 1e-3f);
+        assertEquals(30f, out.boxes[2], 1e-3f);
+        assertEquals(100f, out.boxes[3], 0f);
+    }
+
+    /** Five hundred random candidates spread over a full 25,200-row output. */
+    private static float[] crowdedOutput() {
+        Random random = new Random(42);
+        float[] rows = emptyRows(DetectionEngine.NUM_ROWS);
+        for (int i = 0; i < 500; i++) {
+            set(rows, random.nextInt(rows(rows)), random.nextFloat(), random.nextFloat(),
+                    0.05f + random.nextFloat() * 0.2f, 0.05f + random.nextFloat() * 0.2f,
+                    0.3f + random.nextFloat() * 0.7f, random.nextInt(80), 0.5f + random.nextFloat() * 0.5f);
+        }
+        return rows;
+    }
+
+    /** Hundreds of overlapping candidates still come out as a bounded set of detections. */
+    @Test
+    public void process_hundredsOfCandidates() {
+        float[] rows = crowdedOutput();
+        YoloPostprocessor postprocessor = new YoloPostprocessor();
+        Letterbox letterbox = new Letterbox().fit(4000, 3000, 640);
+        DetectionBatch out = new DetectionBatch(20);
+
+        process(postprocessor, rows, letterbox, out);
+        assertTrue(out.size() > 0);
+        assertTrue(out.size() <= 20);
+    }
+}
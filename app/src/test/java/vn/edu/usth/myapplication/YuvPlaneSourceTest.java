@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2025 Android project OpenVision API
+ * All rights reserved.
+ * Project: My Application
+ * File: YuvPlaneSourceTest.java
+ * Last Modified: 17/10/2026
+ */
+
+package vn.edu.usth.myapplication;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class YuvPlaneSourceTest {
+
+    private static final int W = 4;
+    private static final int H = 4;
+
+    /** Semi-planar (NV21-like) frame: luma is 10 * x + 60 * y, chroma is neutral except in the top-left block. */
+    private static YuvPlaneSource frame(int cropLeft, int cropTop, int cropW, int cropH, int rotation) {
+        int yStride = W + 2;
+        ByteBuffer y = ByteBuffer.allocate(yStride * H);
+        for (int row = 0; row < H; row++) {
+            for (int x = 0; x < W; x++) y.put(row * yStride + x, (byte) (10 * x + 60 * row));
+        }
+        // Interleaved V/U, pixel stride 2; the U and V planes are views one byte apart
+        int uvStride = W + 2;
+        ByteBuffer vu = ByteBuffer.allocate(uvStride * H / 2);
+        for (int i = 0; i < vu.capacity(); i++) vu.put(i, (byte) 128);
+        vu.put(0, (byte) 228);  // V of the top-left 2x2 block: strong red
+        ByteBuffer v = vu.duplicate();
+        vu.position(1);
+        ByteBuffer u = vu.slice();
+        return new YuvPlaneSource().set(y, u, v, yStride, uvStride, 2, cropLeft, cropTop, cropW, cropH, rotation);
+    }
+
+    private static int[] row(PixelSource src, int y) {
+        int[] dst = new int[src.width()];
+        src.readRow(y, dst);
+        return dst;
+    }
+
+    private static int grey(int v) {
+        return 0xFF000000 | v << 16 | v << 8 | v;
+    }
+
+    @Test
+    public void readRow_neutralChromaIsGrey() {
+        YuvPlaneSource src = frame(0, 0, W, H, 0);
+        assertEquals(grey(10 * 2 + 60 * 3), row(src, 3)[2]);
+        assertEquals(grey(60 + 30), row(src, 1)[3]);
+    }
+
+    @Test
+    public void readRow_convertsChromaWithBt601() {
+        int argb = row(frame(0, 0, W, H, 0), 0)[1];
+        // Y 10, Cr +100: R = 10 + 1.402 * 100, G = 10 - 0.714 * 100 clamps to 0
+        assertEquals(150, argb >> 16 & 0xFF);
+        assertEquals(0, argb >> 8 & 0xFF);
+        assertEquals(10, argb & 0xFF);
+    }
+
+    @Test
+    public void readRow_appliesCropAndRotation() {
+        // Crop the bottom-right 2x3 and turn it upright by 90 degrees: 3 wide, 2 high
+        YuvPlaneSource src = frame(2, 1, 2, 3, 90);
+        assertEquals(3, src.width());
+        assertEquals(2, src.height());
+        // Upright row 0 is buffer column 2 read bottom-up
+        int[] r = row(src, 0);
+        assertEquals(grey(20 + 180), r[0]);
+        assertEquals(grey(20 + 60), r[2]);
+
+        src = frame(0, 0, W, H, 270);
+        assertEquals(grey(30), row(src, 0)[0]);
+        assertEquals(grey(30 + 180), row(src, 0)[3]);
+    }
+}